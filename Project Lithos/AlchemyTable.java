@@ -1,31 +1,31 @@
-import java.util.Random;
-import java.util.Scanner;
-
 public class AlchemyTable {
     private final Inventory inventory;     // Reference to player's inventory
-    private final Scanner sc = new Scanner(System.in); // For user input
+    private final GameIO io;               // Player input and game output
+    private final GameRandom random;       // Shared game RNG: success rolls
 
     public AlchemyTable(Inventory inventory) {
         this.inventory = inventory;
+        this.io = inventory.getGameState().getIO();
+        this.random = inventory.getGameState().getRandom();
     }
     
     public void enterAlchemyMenu() {
         // Check if player has crafted an Alchemy Table
         if (!inventory.hasAlchemyTable()) {
-            System.out.println("You need to craft the Alchemy Table first!");
+            io.println("You need to craft the Alchemy Table first!");
             return;
         }
 
         // Main alchemy interaction loop
         while (true) {
-            System.out.println("\n--- Alchemy Table Experiments ---");
-            System.out.println("1. Ferment Grapes into Alcohol (Grapes: " + inventory.getMaterialCount("Grapes") + ")");
-            System.out.println("2. Mix Revival Potion (Needs: Alcohol: " + inventory.getMaterialCount("Alcohol") + 
+            io.println("\n--- Alchemy Table Experiments ---");
+            io.println("1. Ferment Grapes into Alcohol (Grapes: " + inventory.getMaterialCount("Grapes") + ")");
+            io.println("2. Mix Revival Potion (Needs: Alcohol: " + inventory.getMaterialCount("Alcohol") + 
                                ", Nitric Acid: " + inventory.getMaterialCount("Nitric Acid") + ")");
-            System.out.println("   (Optional: Add Platinum for **2x Potion Yield**)");
-            System.out.println("Type 'back' to return.");
-            System.out.print("Enter choice (1/2/back): ");
-            String input = sc.nextLine().trim();
+            io.println("   (Optional: Add Platinum for **2x Potion Yield**)");
+            io.println("Type 'back' to return.");
+            io.print("Enter choice (1/2/back): ");
+            String input = io.readLine().trim();
 
             // Exit menu
             if (input.equalsIgnoreCase("back")) break;
@@ -37,104 +37,168 @@ public class AlchemyTable {
                 switch (choice) {
                     case 1 -> processGrapes();
                     case 2 -> mixRevivalPotion();
-                    default -> System.out.println("Invalid choice.");
+                    default -> io.println("Invalid choice.");
                 }
+                inventory.getGameState().flushJournal();
 
             } catch (NumberFormatException e) {
                 // Handles non-number inputs
-                System.out.println("Invalid input! Please enter a number or 'back'.");
+                io.println("Invalid input! Please enter a number or 'back'.");
             }
         }
     }
 
     public void processGrapes() {
-        int grapeCount = inventory.getMaterialCount("Grapes");
+        Recipe alcohol = RecipeBook.ALCOHOL;
         
         // Must have at least 1 grape
-        if (grapeCount < 1) {
-            System.out.println("You need at least 1 Grape to ferment into Alcohol.");
+        if (!alcohol.hasInputs(inventory, 1, false)) {
+            io.println("You need at least 1 Grape to ferment into Alcohol.");
             return;
         }
 
         // Confirmation prompt
-        System.out.print("Ferment 1 Grape into Alcohol? (y/n): ");
-        if (sc.nextLine().trim().equalsIgnoreCase("y")) {
+        io.print("Ferment 1 Grape into Alcohol? (y/n): ");
+        if (io.readLine().trim().equalsIgnoreCase("y")) {
 
-            // Remove grape and add alcohol
-            if (inventory.useMaterial("Grapes")) {
-                inventory.addRawMaterial("Alcohol", 1);
-                System.out.println("Success! You turned 1 Grape into **Alcohol**.");
+            // Remove grape and add alcohol (fermenting never fails); the grape may be gone by now in a shared world
+            if (!alcohol.tryConsumeInputs(inventory, 1, false)) {
+                io.println("You need at least 1 Grape to ferment into Alcohol.");
+                return;
             }
+            alcohol.deliver(inventory, 1, false);
+            io.println("Success! You turned 1 Grape into **Alcohol**.");
+            io.emit(new GameEvent(GameEvent.Type.CRAFT_SUCCEEDED, alcohol.name, 1));
         }
     }
     
+    // Ferments many Grapes at once with no prompt (fermenting never fails). Returns Alcohol made
+    public int processGrapes(int quantity) {
+        Recipe alcohol = RecipeBook.ALCOHOL;
+        if (quantity < 1 || !alcohol.tryConsumeInputs(inventory, quantity, false)) {
+            io.println("You need at least " + Math.max(quantity, 1) + " Grapes to ferment that much Alcohol.");
+            return 0;
+        }
+
+        int made = alcohol.deliver(inventory, quantity, false);
+        io.println("Success! You turned " + quantity + " Grapes into **Alcohol**.");
+        io.emit(new GameEvent(GameEvent.Type.CRAFT_SUCCEEDED, alcohol.name, made));
+        return made;
+    }
+
+    // Mixes many Revival Potions at once with no prompts.
+    // Each attempt takes 1 Nitric Acid + 1 Alcohol (+ 1 Platinum when usePlatinum, doubling its yield);
+    // materials are reserved once and all success rolls are settled in one binomial draw.
+    // Returns the number of potions created.
+    public int mixRevivalPotions(int quantity, boolean usePlatinum) {
+        Recipe potion = RecipeBook.REVIVAL_POTION;
+        if (quantity < 1) {
+            io.println("Quantity must be at least 1.");
+            return 0;
+        }
+
+        // Reserve: every attempt's materials must be there before anything is taken.
+        // Materials are lost on failure too, so take them in one update per material
+        if (!potion.tryConsumeInputs(inventory, quantity, usePlatinum)) {
+            io.println("Insufficient materials to mix " + quantity + " Revival Potion batch(es) (Needs per mix: "
+                    + potion.needsText() + (usePlatinum ? " + Platinum" : "") + ").");
+            return 0;
+        }
+
+        boolean alwaysSuccessful = inventory.getGameState().isCraftAlwaysSuccessful();
+        if (alwaysSuccessful) {
+            io.println("Bem's presence ensures success!");
+        }
+        int successes = potion.rollSuccesses(random, quantity, alwaysSuccessful);
+        Metrics.craftsRolled(quantity, successes);
+        Metrics.craftEvent(potion.name, quantity, successes);
+        int potionsCreated = potion.deliver(inventory, successes, usePlatinum);
+
+        io.println("Batch complete! " + successes + "/" + quantity + " mixes succeeded: **"
+                + potionsCreated + " Revival Potion(s)** created!");
+        if (potionsCreated > 0) io.emit(new GameEvent(GameEvent.Type.CRAFT_SUCCEEDED, potion.name, potionsCreated));
+        if (successes < quantity) io.emit(new GameEvent(GameEvent.Type.CRAFT_FAILED, potion.name, quantity - successes));
+        return potionsCreated;
+    }
+    
     private void mixRevivalPotion() {
+        Recipe potion = RecipeBook.REVIVAL_POTION;
+
         // Check materials
-        if (inventory.hasMaterial("Nitric Acid") && inventory.hasMaterial("Alcohol")) {
+        if (potion.hasInputs(inventory, 1, false)) {
             
-            int potionsCreated = 1;
-            boolean usedPlatinum = inventory.hasMaterial("Platinum"); // Optional bonus
+            boolean usedPlatinum = potion.hasInputs(inventory, 1, true); // Optional catalyst available
 
             // Ask player if they want to use Platinum
             if (usedPlatinum) {
-                System.out.print("Platinum detected. Use 1 Platinum for 2x Revival Potions? (y/n): ");
-                if (sc.nextLine().trim().equalsIgnoreCase("y")) {
-                    potionsCreated = 2;
-                } else {
+                io.print("Platinum detected. Use 1 Platinum for 2x Revival Potions? (y/n): ");
+                if (!io.readLine().trim().equalsIgnoreCase("y")) {
                     usedPlatinum = false; // They refused to use it
                 }
             }
 
             // Final confirmation before crafting
-            System.out.print("Final mix confirmation (Needs: Nitric Acid + Alcohol)? (y/n): ");
-            if (sc.nextLine().trim().equalsIgnoreCase("y")) {
+            io.print("Final mix confirmation (Needs: " + potion.needsText() + ")? (y/n): ");
+            if (io.readLine().trim().equalsIgnoreCase("y")) {
+
+                // Materials (and Platinum, if chosen) are consumed either way. Taking them and
+                // adding the potions is one transaction, so the mix lands whole or not at all;
+                // in a shared world the materials may have been spent during the prompts.
+                // Success is only rolled once the inputs are known to be there, and a retried
+                // commit keeps the first roll
+                boolean withPlatinum = usedPlatinum;
+                int[] roll = { -1 }; // -1 not rolled yet, 0 failed, 1 succeeded
+                boolean mixed = GameTransaction.run(inventory.getGameState(), mix -> {
+                    if (!mix.consumeInputs(potion, 1, withPlatinum)) return false;
+                    if (roll[0] < 0) roll[0] = checkCraftSuccess() ? 1 : 0;
+                    if (roll[0] == 1) mix.deliver(potion, 1, withPlatinum);
+                    return true;
+                });
+                boolean success = roll[0] == 1;
+                if (!mixed) {
+                    io.println("The materials are gone! (Needs: " + potion.needsText() + (usedPlatinum ? " + Platinum" : "") + ")");
+                    return;
+                }
+                Metrics.craftEvent(potion.name, 1, success ? 1 : 0);
 
                 // SUCCESS CASE
-                if (checkCraftSuccess()) {
-                    inventory.useMaterial("Nitric Acid");
-                    inventory.useMaterial("Alcohol");
-
-                    // If platinum used, consume it and notify
+                if (success) {
                     if (usedPlatinum) {
-                        inventory.useMaterial("Platinum");
-                        System.out.println("💎 Platinum added! The yield is doubled!");
-                    }
-
-                    // Add crafted potions to inventory
-                    for (int i = 0; i < potionsCreated; i++) {
-                        inventory.addCraftedItem(new CraftedItem("Revival Potion", "Revives a character"));
+                        io.println("💎 Platinum added! The yield is doubled!");
                     }
+                    int potionsCreated = usedPlatinum ? potion.getCatalystMultiplier() : 1;
                     
-                    System.out.println("You mixed the materials: **" + potionsCreated + " Revival Potion(s)** created!");
+                    io.println("You mixed the materials: **" + potionsCreated + " Revival Potion(s)** created!");
+                    io.emit(new GameEvent(GameEvent.Type.CRAFT_SUCCEEDED, potion.name, potionsCreated));
 
                 } else {
                     // FAILURE CASE — all materials lost
-                    inventory.useMaterial("Nitric Acid");
-                    inventory.useMaterial("Alcohol");
-
                     if (usedPlatinum) {
-                        inventory.useMaterial("Platinum");
-                        System.out.println("Failure! The mixture boiled over. Materials lost (including Platinum).");
+                        io.println("Failure! The mixture boiled over. Materials lost (including Platinum).");
                     } else {
-                        System.out.println("Failure! The mixture boiled over. Materials lost.");
+                        io.println(potion.failureMessage);
                     }
+                    io.emit(new GameEvent(GameEvent.Type.CRAFT_FAILED, potion.name, 1));
                 }
             }
 
         } else {
             // Missing needed materials
-            System.out.println("Insufficient materials to craft Revival Potion (Needs: Nitric Acid, Alcohol).");
+            io.println("Insufficient materials to craft Revival Potion (Needs: Nitric Acid, Alcohol).");
         }
     }
     
     private boolean checkCraftSuccess() {
         // Auto-success state (e.g., for debugging or special buff)
         if (inventory.getGameState().isCraftAlwaysSuccessful()) {
-            System.out.println("Bem's presence ensures success!");
+            io.println("Bem's presence ensures success!");
+            Metrics.craftRolled(true);
             return true;
         }
 
         // 70% success rate
-        return new Random().nextInt(100) < 70;
+        boolean success = random.nextInt(100) < 70;
+        Metrics.craftRolled(success);
+        return success;
     }
 }
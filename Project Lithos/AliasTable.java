@@ -0,0 +1,59 @@
+import java.util.random.RandomGenerator;
+
+// Walker/Vose alias table: draws index i with probability weights[i] / sum(weights)
+// in O(1) per sample (one nextInt, one nextDouble), after O(n) setup.
+public final class AliasTable {
+    private final double[] probability; // Chance of keeping column i rather than taking its alias
+    private final int[] alias;
+
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("An alias table needs at least one weight.");
+        }
+        double total = 0;
+        for (double w : weights) {
+            if (w < 0 || Double.isNaN(w)) throw new IllegalArgumentException("Weights must be non-negative: " + w);
+            total += w;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights must not all be zero.");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale so the average column holds exactly 1, then pair each small column with a large one
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) small[smallCount++] = l;
+            else large[largeCount++] = l;
+        }
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) probability[small[--smallCount]] = 1.0;
+    }
+
+    public int sample(RandomGenerator rng) {
+        int column = rng.nextInt(probability.length);
+        return rng.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.random.RandomGenerator;
+
+// Draws "how many of n independent rolls succeed" in one go,
+// used to settle a whole batch of crafting attempts without rolling each unit.
+public final class Binomial {
+    // Up to this many trials it is cheapest (and exact) to just roll them
+    private static final int DIRECT_LIMIT = 64;
+    // Above this variance the normal approximation is indistinguishable from the exact draw
+    private static final double NORMAL_MIN_VARIANCE = 100.0;
+
+    private Binomial() {}
+
+    // Number of successes in n rolls that each succeed with percent/100 probability
+    public static int sample(RandomGenerator rng, int n, int percent) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Trial count cannot be negative: " + n);
+        }
+        if (percent <= 0 || n == 0) return 0;
+        if (percent >= 100) return n;
+
+        // Small batches: same rolls the single-unit crafting path makes
+        if (n <= DIRECT_LIMIT) {
+            int successes = 0;
+            for (int i = 0; i < n; i++) {
+                if (rng.nextInt(100) < percent) successes++;
+            }
+            return successes;
+        }
+
+        double p = percent / 100.0;
+        double variance = n * p * (1 - p);
+
+        // Huge batches: normal approximation, rounded and clamped to a valid count
+        if (variance >= NORMAL_MIN_VARIANCE) {
+            long draw = Math.round(n * p + Math.sqrt(variance) * rng.nextGaussian());
+            return (int) Math.max(0, Math.min(n, draw));
+        }
+
+        // Middle ground: exact, skipping ahead geometrically between the rarer outcome
+        boolean countFailures = p > 0.5;
+        double rare = countFailures ? 1 - p : p;
+        double logMiss = Math.log(1 - rare);
+        int hits = 0;
+        long position = 0;
+        while (true) {
+            position += (long) (Math.log(1.0 - rng.nextDouble()) / logMiss) + 1;
+            if (position > n) break;
+            hits++;
+        }
+        return countFailures ? n - hits : hits;
+    }
+}
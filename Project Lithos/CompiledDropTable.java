@@ -0,0 +1,110 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+// Drop table for one (Place, Weather, fullness) combination with every chance worked out ahead of time.
+// A roll is a handful of nextInt(100) compares against int thresholds: no doubles, no map walks, no allocation.
+public final class CompiledDropTable {
+    // [place][weather][fed ? 1 : 0]
+    private static final CompiledDropTable[][][] TABLES = compileAll();
+    private static final Weather[] WEATHERS = Weather.values(); // values() clones on every call
+
+    private final Place place;
+    private final int[] materialIds; // Slot -> material id
+    private final int[] thresholds;  // Slot -> drops when nextInt(100) is below this
+
+    private CompiledDropTable(Place place, int baseSuccessRate, double weatherMultiplier) {
+        this.place = place;
+
+        // Sorted by name so slot order (and therefore a seeded run) never depends on the map type
+        Map<String, Integer> common = new TreeMap<>(place.commonDrops);
+        Map<String, Integer> rare = place == Place.DEEP_SEA_SHORE ? Map.of() : new TreeMap<>(place.rareDrops);
+        int slots = common.size() + rare.size();
+        if (slots > Long.SIZE) {
+            throw new IllegalStateException(place.name + " has more than " + Long.SIZE + " drops");
+        }
+
+        this.materialIds = new int[slots];
+        this.thresholds = new int[slots];
+        int slot = 0;
+        for (Map.Entry<String, Integer> entry : common.entrySet()) {
+            materialIds[slot] = MaterialRegistry.intern(entry.getKey());
+            thresholds[slot++] = place == Place.DEEP_SEA_SHORE
+                    ? DropTable.deepSeaChance(weatherMultiplier)
+                    : DropTable.commonChance(entry.getValue(), baseSuccessRate, weatherMultiplier);
+        }
+        for (Map.Entry<String, Integer> entry : rare.entrySet()) {
+            materialIds[slot] = MaterialRegistry.intern(entry.getKey());
+            thresholds[slot++] = DropTable.rareChance(entry.getValue(), weatherMultiplier);
+        }
+    }
+
+    private static CompiledDropTable[][][] compileAll() {
+        Place[] places = Place.values();
+        Weather[] weathers = Weather.values();
+        CompiledDropTable[][][] tables = new CompiledDropTable[places.length][weathers.length][2];
+        for (Place place : places) {
+            for (Weather weather : weathers) {
+                tables[place.ordinal()][weather.ordinal()][0] = new CompiledDropTable(place, 50, weather.multiplier);
+                tables[place.ordinal()][weather.ordinal()][1] = new CompiledDropTable(place, 65, weather.multiplier);
+            }
+        }
+        return tables;
+    }
+
+    // Cached table; fed = fullness above 0 (65% base success), otherwise 50%
+    public static CompiledDropTable of(Place place, Weather weather, boolean fed) {
+        return TABLES[place.ordinal()][weather.ordinal()][fed ? 1 : 0];
+    }
+
+    // For callers that only have the raw numbers; reuses a cached table whenever they match one
+    public static CompiledDropTable forRoll(Place place, int baseSuccessRate, double weatherMultiplier) {
+        if (baseSuccessRate == 50 || baseSuccessRate == 65) {
+            for (Weather weather : WEATHERS) {
+                if (weather.multiplier == weatherMultiplier) {
+                    return of(place, weather, baseSuccessRate == 65);
+                }
+            }
+        }
+        return new CompiledDropTable(place, baseSuccessRate, weatherMultiplier);
+    }
+
+    public Place getPlace() { return place; }
+
+    // True for the Deep Sea Shore, whose drops feed the Painite gacha
+    public boolean isDeepSea() { return place == Place.DEEP_SEA_SHORE; }
+
+    // Number of rollable slots
+    public int size() { return materialIds.length; }
+
+    // Material id stored in a slot
+    public int materialId(int slot) { return materialIds[slot]; }
+
+    // Drop chance (out of 100) of a slot
+    public int threshold(int slot) { return thresholds[slot]; }
+
+    // Rolls every slot once; bit i of the result is set if slot i dropped
+    public long rollMask(RandomGenerator rng) {
+        long mask = 0;
+        for (int slot = 0; slot < thresholds.length; slot++) {
+            if (rng.nextInt(100) < thresholds[slot]) {
+                mask |= 1L << slot;
+            }
+        }
+        return mask;
+    }
+
+    // Adds 'yield' of every slot set in mask into counts, indexed by material id
+    public void addTo(long mask, int[] counts, int yield) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            counts[materialIds[Long.numberOfTrailingZeros(m)]] += yield;
+        }
+    }
+
+    // Rolls once and writes the finds into counts; returns how many different materials dropped
+    public int roll(RandomGenerator rng, int[] counts, int yield) {
+        long mask = rollMask(rng);
+        addTo(mask, counts, yield);
+        return Long.bitCount(mask);
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Thread-safe version of MaterialCounts for worlds several players share at once.
+// Each material is one atomic counter, updated with compare-and-set, so no locks are taken
+// and players working with different materials never wait for each other. Counters sit a
+// cache line apart, so threads hammering neighbouring materials don't slow each other down
+// through false sharing either. Counters live in segments of 64 materials; materials
+// registered later get a new segment, and a counter never moves once made, so growing never
+// loses an update.
+//
+// tryConsume takes several materials (a recipe's inputs) all or nothing: each is taken in
+// turn and, if one runs short, the ones already taken are put back. Another thread can see
+// the partly taken counts for that moment (and be refused), but units are never lost or
+// spent twice.
+public final class ConcurrentMaterialCounts {
+    // Ints per counter slot: 16 x 4 bytes = one 64-byte cache line
+    private static final int STRIDE = 16;
+    // Materials per segment
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+    // Material id i in segment i / SEGMENT_SIZE at slot (i % SEGMENT_SIZE + 1) * STRIDE; slot 0
+    // pads the array header. Replaced (never changed in place) when the store grows
+    private volatile AtomicIntegerArray[] segments;
+
+    public ConcurrentMaterialCounts() {
+        this(MaterialRegistry.size());
+    }
+
+    // Room for 'capacity' materials up front; more are added as needed
+    public ConcurrentMaterialCounts(int capacity) {
+        AtomicIntegerArray[] table = new AtomicIntegerArray[Math.max(1, (capacity + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        for (int s = 0; s < table.length; s++) {
+            table[s] = newSegment();
+        }
+        this.segments = table;
+    }
+
+    // Amount held of a material
+    public int getMaterialCount(int id) {
+        AtomicIntegerArray segment = segmentOrNull(id);
+        return segment == null ? 0 : segment.get(slot(id));
+    }
+
+    public boolean hasMaterial(int id) {
+        return getMaterialCount(id) > 0;
+    }
+
+    // Adds an amount of a material
+    public void addRawMaterial(int id, int amount) {
+        segment(id).getAndAdd(slot(id), amount);
+    }
+
+    // Removes an amount if enough is held; returns false (and changes nothing) otherwise
+    public boolean useMaterial(int id, int amount) {
+        AtomicIntegerArray segment = segmentOrNull(id);
+        if (segment == null) {
+            return amount <= 0;
+        }
+        int slot = slot(id);
+        while (true) {
+            int held = segment.get(slot);
+            if (held < amount) {
+                return false;
+            }
+            if (segment.compareAndSet(slot, held, held - amount)) {
+                return true;
+            }
+        }
+    }
+    public boolean useMaterial(int id) {
+        return useMaterial(id, 1);
+    }
+
+    // Takes amounts[i] of ids[i] for every i, or nothing at all if any of them is short
+    public boolean tryConsume(int[] ids, int[] amounts) {
+        for (int i = 0; i < ids.length; i++) {
+            if (!useMaterial(ids[i], amounts[i])) {
+                giveBack(ids, amounts, i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A recipe's inputs for 'units' crafts (plus its catalyst if wanted), all or nothing
+    public boolean tryConsume(Recipe recipe, int units, boolean withCatalyst) {
+        int inputs = recipe.inputCount();
+        for (int i = 0; i < inputs; i++) {
+            long amount = (long) recipe.inputAmount(i) * units;
+            if (amount > Integer.MAX_VALUE || !useMaterial(recipe.inputId(i), (int) amount)) {
+                giveBack(recipe, units, i);
+                return false;
+            }
+        }
+        if (withCatalyst && recipe.hasCatalyst() && !useMaterial(recipe.getCatalystId(), units)) {
+            giveBack(recipe, units, inputs);
+            return false;
+        }
+        return true;
+    }
+
+    // Empties every material. Not atomic as a whole: adds racing with it may survive
+    public void clear() {
+        for (AtomicIntegerArray segment : segments) {
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                segment.set((i + 1) * STRIDE, 0);
+            }
+        }
+    }
+
+    // Copy of the current counts into a single-threaded store (each count read atomically)
+    public MaterialCounts copy() {
+        MaterialCounts copy = new MaterialCounts();
+        for (int id = 0; id < capacity(); id++) {
+            int count = getMaterialCount(id);
+            if (count != 0) copy.addRawMaterial(id, count);
+        }
+        return copy;
+    }
+
+    // --- String adapters (unknown names simply count as 0) ---
+
+    public int getMaterialCount(String name) {
+        int id = MaterialRegistry.idOf(name);
+        return id < 0 ? 0 : getMaterialCount(id);
+    }
+
+    public boolean hasMaterial(String name) {
+        return getMaterialCount(name) > 0;
+    }
+
+    public void addRawMaterial(String name, int amount) {
+        addRawMaterial(MaterialRegistry.intern(name), amount);
+    }
+
+    public boolean useMaterial(String name, int amount) {
+        int id = MaterialRegistry.idOf(name);
+        return id >= 0 && useMaterial(id, amount);
+    }
+
+    public boolean useMaterial(String name) {
+        return useMaterial(name, 1);
+    }
+
+    // Held materials by name, in id order (for display)
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int id = 0; id < Math.min(capacity(), MaterialRegistry.size()); id++) {
+            int count = getMaterialCount(id);
+            if (count > 0) {
+                map.put(MaterialRegistry.nameOf(id), count);
+            }
+        }
+        return map;
+    }
+
+    private void giveBack(int[] ids, int[] amounts, int taken) {
+        for (int j = taken - 1; j >= 0; j--) {
+            addRawMaterial(ids[j], amounts[j]);
+        }
+    }
+
+    private void giveBack(Recipe recipe, int units, int taken) {
+        for (int j = taken - 1; j >= 0; j--) {
+            addRawMaterial(recipe.inputId(j), recipe.inputAmount(j) * units);
+        }
+    }
+
+    // Materials that fit without growing
+    private int capacity() {
+        return segments.length * SEGMENT_SIZE;
+    }
+
+    private AtomicIntegerArray segmentOrNull(int id) {
+        AtomicIntegerArray[] table = segments;
+        int s = id >>> SEGMENT_BITS;
+        return id >= 0 && s < table.length ? table[s] : null;
+    }
+
+    // The segment holding an id, growing the store if it doesn't fit yet
+    private AtomicIntegerArray segment(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Not a material id: " + id);
+        }
+        AtomicIntegerArray segment = segmentOrNull(id);
+        return segment != null ? segment : grow(id >>> SEGMENT_BITS);
+    }
+
+    // Existing segments are carried over as they are, so concurrent updates to them still count
+    private synchronized AtomicIntegerArray grow(int s) {
+        AtomicIntegerArray[] table = segments;
+        if (s >= table.length) {
+            AtomicIntegerArray[] bigger = Arrays.copyOf(table, Math.max(s + 1, table.length * 2));
+            for (int i = table.length; i < bigger.length; i++) {
+                bigger[i] = newSegment();
+            }
+            segments = bigger;
+            table = bigger;
+        }
+        return table[s];
+    }
+
+    private static AtomicIntegerArray newSegment() {
+        return new AtomicIntegerArray((SEGMENT_SIZE + 1) * STRIDE);
+    }
+
+    private static int slot(int id) {
+        return ((id & (SEGMENT_SIZE - 1)) + 1) * STRIDE;
+    }
+}
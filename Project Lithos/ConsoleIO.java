@@ -0,0 +1,36 @@
+import java.util.Scanner;
+
+// Terminal adapter: one Scanner over System.in shared by every menu, so typed-ahead
+// or piped input is never lost between subsystems. Events are not shown on the console.
+public final class ConsoleIO implements GameIO {
+    private static final ConsoleIO INSTANCE = new ConsoleIO();
+
+    private final Scanner sc = new Scanner(System.in);
+
+    private ConsoleIO() {}
+
+    // The single console adapter (System.in can only be read through one Scanner safely)
+    public static ConsoleIO get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public String readLine() {
+        return sc.nextLine();
+    }
+
+    @Override
+    public void print(String text) {
+        System.out.print(text);
+    }
+
+    @Override
+    public void println(String text) {
+        System.out.println(text);
+    }
+
+    @Override
+    public void emit(GameEvent event) {
+        // Console players only see the text
+    }
+}
@@ -0,0 +1,19 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event for a craft or a batch of crafts
+@Name("lithos.Craft")
+@Label("Craft")
+@Category("Project Lithos")
+public class CraftEvent extends Event {
+    @Label("Recipe")
+    String recipe;
+
+    @Label("Attempted")
+    int attempted;
+
+    @Label("Succeeded")
+    int succeeded;
+}
@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps track of which recipes (of one crafting station) can currently be made.
+// Material changes are fed in one at a time and only the recipes that use the changed
+// material are re-checked, so "what can I craft" is a lookup instead of a full rescan.
+public class CraftableIndex {
+    private final List<Recipe> recipes;   // Recipes tracked, in menu order
+    private final boolean[] craftable;    // Recipe index -> enough materials for one craft
+    private final int[] materials;        // Material ids used by any tracked recipe
+    private final int[][] byMaterial;     // Material id -> indexes of tracked recipes using it
+    private final int[] counts;           // Last known count per material id
+    private long version;                 // Bumped whenever a recipe becomes craftable or stops being so
+
+    public CraftableIndex(List<Recipe> recipes) {
+        this.recipes = List.copyOf(recipes);
+        this.craftable = new boolean[recipes.size()];
+        this.counts = new int[MaterialRegistry.size()];
+        this.byMaterial = new int[MaterialRegistry.size()][];
+
+        List<Integer> used = new ArrayList<>();
+        for (int id = 0; id < byMaterial.length; id++) {
+            List<Integer> users = new ArrayList<>();
+            for (int r = 0; r < this.recipes.size(); r++) {
+                if (this.recipes.get(r).uses(id)) users.add(r);
+            }
+            byMaterial[id] = users.stream().mapToInt(Integer::intValue).toArray();
+            if (!users.isEmpty()) used.add(id);
+        }
+        this.materials = used.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Records a new count for one material and re-checks only the recipes that use it
+    public void onMaterialChanged(int materialId, int count) {
+        if (materialId >= counts.length || counts[materialId] == count) {
+            return; // Not used by any tracked recipe, or nothing changed
+        }
+        counts[materialId] = count;
+        for (int r : byMaterial[materialId]) {
+            boolean now = recipes.get(r).hasInputs(id -> counts[id], 1, false);
+            if (craftable[r] != now) {
+                craftable[r] = now;
+                version++;
+            }
+        }
+    }
+
+    // Polls only the materials the tracked recipes care about from the Inventory
+    public void sync(Inventory inventory) {
+        for (int id : materials) {
+            onMaterialChanged(id, inventory.getMaterialCount(MaterialRegistry.nameOf(id)));
+        }
+    }
+
+    // True if the recipe at this menu index has enough materials for one craft
+    public boolean isCraftable(int recipeIndex) {
+        return craftable[recipeIndex];
+    }
+
+    // True if the recipe is tracked here and has enough materials for one craft
+    public boolean isCraftable(Recipe recipe) {
+        int index = recipes.indexOf(recipe);
+        return index >= 0 && craftable[index];
+    }
+
+    // Changes to the craftable set so far; equal versions mean the same recipes are craftable
+    public long getVersion() {
+        return version;
+    }
+
+    // Tracked recipes, in menu order
+    public List<Recipe> getRecipes() {
+        return recipes;
+    }
+}
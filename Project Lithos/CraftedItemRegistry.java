@@ -0,0 +1,51 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Interns crafted item names (Spear, Revival Potion, ...) to dense int ids, like MaterialRegistry
+// does for materials. A separate namespace: a crafted item is never a material, so its id can't
+// collide with one or turn up in a material count array.
+public final class CraftedItemRegistry {
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>(); // Name -> id
+    private static volatile String[] names = new String[0];                     // Id -> name
+
+    // Kinds the game code refers to directly, registered up front so their ids are fixed
+    public static final int REVIVAL_POTION = intern("Revival Potion");
+
+    private CraftedItemRegistry() {}
+
+    // Returns the id for a crafted item kind, registering it on first use
+    public static int intern(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (CraftedItemRegistry.class) {
+            id = IDS.get(name);
+            if (id == null) {
+                String[] grown = Arrays.copyOf(names, names.length + 1);
+                grown[names.length] = name;
+                id = names.length;
+                names = grown; // Publish the name before the id becomes visible
+                IDS.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    // Id of an already registered kind, or -1 if it was never seen
+    public static int idOf(String name) {
+        Integer id = IDS.get(name);
+        return id == null ? -1 : id;
+    }
+
+    // Crafted item name for an id
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    // Number of registered kinds; int count arrays should be at least this long
+    public static int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Crafted items (Spears, Revival Potions, Wooden Bateas...) as counted stacks: one entry per
+// kind holding how many there are, never one object per item. Kinds are CraftedItemRegistry ids
+// of the item names. The played game (JournaledInventory) and WorldState both hold theirs here.
+//
+// Counts and use-by-kind are O(1); removing a random item or the item at a list position walks
+// the stacks, so it costs one step per kind held (a handful) however many items there are.
+// The item list is the stacks in order, each stack's items one after another.
+// A stack that runs out is swap-removed, so the stack list never has holes. Nothing allocates
+// once the arrays have grown to the number of kinds in play.
+public final class CraftedItemStore {
+    private int[] counts = new int[0];   // Kind id -> items held
+    private int[] position = new int[0]; // Kind id -> index in stacks + 1 (0 = no stack)
+    private int[] stacks = new int[4];   // Kinds held, densely packed
+    private int stackCount;
+    private int total;
+
+    public CraftedItemStore() {}
+
+    private CraftedItemStore(CraftedItemStore other) {
+        this.counts = other.counts.clone();
+        this.position = other.position.clone();
+        this.stacks = other.stacks.clone();
+        this.stackCount = other.stackCount;
+        this.total = other.total;
+    }
+
+    // Independent copy (for forked world states)
+    public CraftedItemStore copy() {
+        return new CraftedItemStore(this);
+    }
+
+    public void add(String name, int amount) {
+        add(CraftedItemRegistry.intern(name), amount);
+    }
+
+    public void add(int kind, int amount) {
+        if (amount <= 0) return;
+        if (kind >= counts.length) {
+            int size = Math.max(kind + 1, CraftedItemRegistry.size());
+            counts = Arrays.copyOf(counts, size);
+            position = Arrays.copyOf(position, size);
+        }
+        if (position[kind] == 0) {
+            if (stackCount == stacks.length) stacks = Arrays.copyOf(stacks, stackCount * 2);
+            stacks[stackCount++] = kind;
+            position[kind] = stackCount;
+        }
+        counts[kind] += amount;
+        total += amount;
+    }
+
+    public int getCount(String name) {
+        int kind = CraftedItemRegistry.idOf(name);
+        return kind < 0 ? 0 : getCount(kind);
+    }
+
+    public int getCount(int kind) {
+        return kind < counts.length ? counts[kind] : 0;
+    }
+
+    // Items of every kind
+    public int getTotal() {
+        return total;
+    }
+
+    // Uses up one item of a kind; false if there is none
+    public boolean use(int kind) {
+        if (getCount(kind) == 0) {
+            return false;
+        }
+        take(kind);
+        return true;
+    }
+
+    // Uses up the item at this position of the item list (stack by stack, as listed to the player).
+    // Returns its kind, or -1 if the position is out of range
+    public int useAt(int index) {
+        if (index < 0 || index >= total) {
+            return -1;
+        }
+        int kind = kindOfItem(index);
+        take(kind);
+        return kind;
+    }
+
+    // Removes one item picked uniformly from everything held (Akio's theft, hazards).
+    // Returns its kind, or -1 if there was nothing to take
+    public int removeRandom(RandomGenerator rng) {
+        if (total == 0) {
+            return -1;
+        }
+        int kind = kindOfItem(rng.nextInt(total));
+        take(kind);
+        return kind;
+    }
+
+    public void clear() {
+        for (int i = 0; i < stackCount; i++) {
+            counts[stacks[i]] = 0;
+            position[stacks[i]] = 0;
+        }
+        stackCount = 0;
+        total = 0;
+    }
+
+    // Stacks, for listing without allocating: kindAt(i) / countAt(i) for i below stacks()
+    public int stacks() { return stackCount; }
+    public int kindAt(int stack) { return stacks[stack]; }
+    public int countAt(int stack) { return counts[stacks[stack]]; }
+
+    // Kind of the item at a position of the item list (0 <= index < getTotal())
+    public int kindOfItem(int index) {
+        for (int i = 0; ; i++) {
+            index -= counts[stacks[i]];
+            if (index < 0) return stacks[i];
+        }
+    }
+
+    private void take(int kind) {
+        total--;
+        if (--counts[kind] == 0) {
+            // Swap-remove the empty stack: the last stack moves into its place
+            int hole = position[kind] - 1;
+            int last = stacks[--stackCount];
+            stacks[hole] = last;
+            position[last] = hole + 1;
+            position[kind] = 0;
+        }
+    }
+}
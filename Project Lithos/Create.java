@@ -1,12 +1,27 @@
-import java.util.Random;
-import java.util.Scanner;
-
 public class Create {
     private final Inventory inventory;     // Player inventory reference
-    private final Scanner sc = new Scanner(System.in); // Input reader
+    private final GameIO io;               // Player input and game output
+    private final GameRandom random;       // Shared game RNG: success rolls
+    private final CraftableIndex craftables; // Workbench recipes we have materials for
+    private final boolean polled;            // The inventory doesn't report changes, so the index is synced per render
+
+    // Suggestions screen, reused until the craftable set, Bem's buff or the built structures change
+    private String suggestions;
+    private long suggestionsVersion;
+    private int suggestionsState;
 
     public Create(Inventory inventory) {
         this.inventory = inventory;
+        this.io = inventory.getGameState().getIO();
+        this.random = inventory.getGameState().getRandom();
+        // A JournaledInventory tells its index about every material change as it happens
+        if (inventory instanceof JournaledInventory journaled) {
+            this.craftables = journaled.getCraftables();
+            this.polled = false;
+        } else {
+            this.craftables = new CraftableIndex(RecipeBook.WORKBENCH);
+            this.polled = true;
+        }
     }
 
     public void enterCreateMenu() {
@@ -14,158 +29,178 @@ public class Create {
         while(true) {
             showCraftable(); // Show what player can craft
             
-            System.out.println("\nEnter item name to craft, or type 'back' to return to Main Menu:");
-            String input = sc.nextLine().trim();
+            io.println("\nEnter item name to craft (e.g. 'spear' or '20 spear'), or type 'back' to return to Main Menu:");
+            String input = io.readLine().trim();
 
             if (input.equalsIgnoreCase("back")) {
                 break; // Exit crafting menu
             }
             
-            craftItem(input); // Attempt to craft chosen item
+            // A leading number crafts that many at once
+            String[] parts = input.split("\\s+", 2);
+            if (parts.length == 2 && parts[0].matches("\\d{1,9}")) {
+                craftBatch(parts[1], Integer.parseInt(parts[0]));
+            } else {
+                craftItem(input); // Attempt to craft chosen item
+            }
+            inventory.getGameState().flushJournal();
         }
     }
     
     public void showCraftable() {
-        System.out.println("\n--- Crafting Suggestions (70% Base Success Rate) ---");
-        
-        // Conditions for each craftable item
-        boolean canMakeFurnace = inventory.getMaterialCount("Stone") >= 3 && !inventory.hasFurnace();
-        boolean canMakeAlchemy = inventory.hasMaterial("Stone") && inventory.hasMaterial("Wood") && inventory.getMaterialCount("Painite") > 0 && !inventory.hasAlchemyTable();
-        boolean canMakeSpear = inventory.hasMaterial("Wood") && inventory.hasMaterial("Stone"); 
-        boolean canMakeBatea = inventory.getMaterialCount("Wood") >= 3; 
+        // Only recipes whose materials changed get re-checked (polled here only for a plain Inventory)
+        if (polled) craftables.sync(inventory);
+
+        // Everything else the screen depends on, packed into one int
+        boolean alwaysSuccessful = inventory.getGameState().isCraftAlwaysSuccessful();
+        int state = (alwaysSuccessful ? 1 : 0) | (inventory.hasFurnace() ? 2 : 0) | (inventory.hasAlchemyTable() ? 4 : 0);
+        if (suggestions == null || suggestionsVersion != craftables.getVersion() || suggestionsState != state) {
+            suggestions = renderCraftable(alwaysSuccessful);
+            suggestionsVersion = craftables.getVersion();
+            suggestionsState = state;
+        }
+        io.print(suggestions); // The whole screen in one write
+    }
+
+    private String renderCraftable(boolean alwaysSuccessful) {
+        StringBuilder text = new StringBuilder(512);
+        text.append("\n--- Crafting Suggestions (70% Base Success Rate) ---\n");
         
         // Game state that forces success
-        if (inventory.getGameState().isCraftAlwaysSuccessful()) {
-             System.out.println("\n*** Bem's Effect: 100% Craft Success! ***");
+        if (alwaysSuccessful) {
+             text.append("\n*** Bem's Effect: 100% Craft Success! ***\n");
         }
 
-        System.out.println("These are the items you can make:");
+        text.append("These are the items you can make:\n");
 
         // Only show items the player currently has materials for
-        if (canMakeFurnace) System.out.println("- **Furnace** (Needs: 3 Stone - Permanent Structure)");
-        if (canMakeAlchemy) System.out.println("- **Alchemy Table** (Needs: Wood + Stone + Painite - Permanent Structure)");
-        if (canMakeBatea) System.out.println("- **Wooden Batea** (Needs: 3 Wood - Reusable Tool for Gold Panning)"); 
-        if (canMakeSpear) System.out.println("- **Spear** (Needs: Wood + Stone - Consumable Weapon for Hunting)"); 
+        boolean anyCraftable = false;
+        for (Recipe recipe : craftables.getRecipes()) {
+            if (canMake(recipe)) {
+                text.append("- **").append(recipe.name).append("** (Needs: ").append(recipe.needsText())
+                        .append(" - ").append(recipe.description).append(")\n");
+                anyCraftable = true;
+            }
+        }
         
         // If none are available
-        if (!canMakeFurnace && !canMakeAlchemy && !canMakeSpear && !canMakeBatea) {
-             System.out.println("No immediate craftable items available.");
+        if (!anyCraftable) {
+             text.append("No immediate craftable items available.\n");
         }
-        System.out.println("---");
+        text.append("---\n");
+        return text.toString();
+    }
+
+    // Enough materials, and not a structure that already stands
+    private boolean canMake(Recipe recipe) {
+        return craftables.isCraftable(recipe) && !isBuilt(recipe);
+    }
+
+    // Structures are permanent, so they can only be built once
+    private boolean isBuilt(Recipe recipe) {
+        if (recipe == RecipeBook.FURNACE) return inventory.hasFurnace();
+        if (recipe == RecipeBook.ALCHEMY_TABLE) return inventory.hasAlchemyTable();
+        return false;
     }
     
     private boolean checkCraftSuccess() {
         // Instant success if buff is active
         if (inventory.getGameState().isCraftAlwaysSuccessful()) {
-            System.out.println("Bem's presence ensures success!");
+            io.println("Bem's presence ensures success!");
+            Metrics.craftRolled(true);
             return true;
         }
 
         // Normal success: 70% probability
-        return new Random().nextInt(100) < 70;
+        boolean success = random.nextInt(100) < 70;
+        Metrics.craftRolled(success);
+        return success;
+    }
+
+    // Reports a batch as one success event and one failure event
+    private void emitBatch(Recipe recipe, int attempted, int succeeded) {
+        Metrics.craftsRolled(attempted, succeeded);
+        Metrics.craftEvent(recipe.name, attempted, succeeded);
+        if (succeeded > 0) io.emit(new GameEvent(GameEvent.Type.CRAFT_SUCCEEDED, recipe.name, succeeded));
+        if (succeeded < attempted) io.emit(new GameEvent(GameEvent.Type.CRAFT_FAILED, recipe.name, attempted - succeeded));
+    }
+
+    // Workbench recipe by name/alias, or null for anything this menu can't make
+    private Recipe findWorkbenchRecipe(String itemName) {
+        Recipe recipe = RecipeBook.find(itemName);
+        return RecipeBook.WORKBENCH.contains(recipe) ? recipe : null;
     }
 
     private void craftItem(String itemName) {
-        // Normalize input for flexible matching
-        String normalized = itemName.toLowerCase();
-        
-        // Routes to the correct crafting method
-        switch (normalized) {
-            case "spear" -> craftSpear();
-            case "furnace" -> craftFurnace();
-            case "alchemy table", "alchemy" -> craftAlchemyTable();
-            case "wooden batea", "batea" -> craftWoodenBatea();
-            default -> System.out.println("Unknown craftable: " + itemName);
+        // Look the recipe up (case-insensitive, short names allowed)
+        Recipe recipe = findWorkbenchRecipe(itemName);
+        if (recipe == null) {
+            io.println("Unknown craftable: " + itemName);
+            return;
         }
-    }
-    
-    private void craftFurnace() {
+
         // Can't craft twice (structures are permanent)
-        if (inventory.hasFurnace()) {
-            System.out.println("The Furnace is already built!");
+        if (isBuilt(recipe)) {
+            io.println("The " + recipe.name + " is already built!");
             return;
         }
-        
-        // Check material requirement
-        if (inventory.getMaterialCount("Stone") >= 3) {
-            if (checkCraftSuccess()) {
-                // Use materials then register structure
-                inventory.useMaterial("Stone", 3);
-                inventory.registerStructure("Furnace");
-                System.out.println("Success! You constructed: **Furnace**! (Used 3 Stone)");
-            } else {
-                // Materials consumed even on failure
-                inventory.useMaterial("Stone", 3);
-                System.out.println("Failure! The furnace collapsed during construction. Materials lost.");
-            }
-        } else {
-            System.out.println("Insufficient materials to craft Furnace (Needs: 3 Stone).");
-        }
-    }
 
-    private void craftAlchemyTable() {
-        // Prevent building duplicates
-        if (inventory.hasAlchemyTable()) {
-             System.out.println("The Alchemy Table is already built!");
-             return;
+        // Check and take the materials in one step (they are consumed even on failure)
+        if (!recipe.tryConsumeInputs(inventory, 1, false)) {
+            io.println("Insufficient materials to craft " + recipe.name + " (Needs: " + recipe.needsText() + ").");
+            return;
         }
 
-        // Check all required materials
-        if (inventory.hasMaterial("Stone") && inventory.hasMaterial("Wood") && inventory.getMaterialCount("Painite") > 0) {
-            
-            if (checkCraftSuccess()) {
-                // Consume materials
-                inventory.useMaterial("Stone");
-                inventory.useMaterial("Wood");
-                inventory.useMaterial("Painite");
-
-                // Register the structure
-                inventory.registerStructure("Alchemy Table");
-                System.out.println("Success! You constructed: **Alchemy Table**!");
-            } else {
-                // Fail: consume everything
-                inventory.useMaterial("Stone");
-                inventory.useMaterial("Wood");
-                inventory.useMaterial("Painite");
-                System.out.println("Failure! The table shattered during assembly. Materials lost.");
-            }
+        boolean success = checkCraftSuccess();
+        Metrics.craftEvent(recipe.name, 1, success ? 1 : 0);
 
+        if (success) {
+            recipe.deliver(inventory, 1, false);
+            io.emit(new GameEvent(GameEvent.Type.CRAFT_SUCCEEDED, recipe.name, 1));
+            io.println("Success! You " + (recipe.isPermanent() ? "constructed" : "crafted") + ": **" + recipe.name
+                    + "**! (Used " + recipe.needsText() + ")");
         } else {
-            System.out.println("Insufficient materials to craft Alchemy Table (Needs: Wood, Stone, Painite).");
+            io.println(recipe.failureMessage);
+            io.emit(new GameEvent(GameEvent.Type.CRAFT_FAILED, recipe.name, 1));
         }
     }
-    
-    private void craftWoodenBatea() { 
-        // Needs 3 wood
-        if (inventory.getMaterialCount("Wood") >= 3) {
-            if (checkCraftSuccess()) {
-                inventory.useMaterial("Wood", 3);
-                inventory.addCraftedItem(new CraftedItem("Wooden Batea", "Reusable Tool for Gold Panning"));
-                System.out.println("Success! You crafted: **Wooden Batea**! (Used 3 Wood)");
-            } else {
-                inventory.useMaterial("Wood", 3);
-                System.out.println("Failure! The wood split badly. Materials lost.");
-            }
-        } else {
-            System.out.println("Insufficient materials to craft Wooden Batea (Needs: 3 Wood).");
+
+    // Crafts many units in one go: materials are checked and taken once,
+    // and all success rolls are settled with a single binomial draw.
+    // Returns how many units were actually crafted.
+    public int craftBatch(String itemName, int quantity) {
+        if (quantity < 1) {
+            io.println("Quantity must be at least 1.");
+            return 0;
         }
-    }
-    
-    private void craftSpear() {
-        // Requirements: 1 wood, 1 stone
-        if (inventory.hasMaterial("Wood") && inventory.hasMaterial("Stone")) {
-            if (checkCraftSuccess()) {
-                inventory.useMaterial("Wood");
-                inventory.useMaterial("Stone");
-                inventory.addCraftedItem(new CraftedItem("Spear", "Consumable Weapon for Hunting"));
-                System.out.println("Success! You crafted: **Spear** (Consumable Weapon)");
-            } else {
-                inventory.useMaterial("Wood");
-                inventory.useMaterial("Stone");
-                System.out.println("Failure! The stone broke when you tried to bind it. Materials lost.");
-            }
-        } else {
-            System.out.println("Insufficient materials to craft Spear (Needs: Wood, Stone).");
+
+        Recipe recipe = findWorkbenchRecipe(itemName);
+        if (recipe == null) {
+            io.println("Unknown craftable: " + itemName);
+            return 0;
         }
+        if (recipe.isPermanent()) {
+            io.println("Structures are permanent and can only be built one at a time.");
+            return 0;
+        }
+
+        // Reserve: every unit's materials must be there before anything is taken, and they are
+        // consumed whether each unit succeeds or not, so take them in one update
+        if (!recipe.tryConsumeInputs(inventory, quantity, false)) {
+            io.println("Insufficient materials to craft " + quantity + " " + recipe.name
+                    + " (Needs per unit: " + recipe.needsText() + ").");
+            return 0;
+        }
+
+        // Bem makes every unit succeed
+        boolean alwaysSuccessful = inventory.getGameState().isCraftAlwaysSuccessful();
+        if (alwaysSuccessful) {
+            io.println("Bem's presence ensures success!");
+        }
+        int crafted = recipe.deliver(inventory, recipe.rollSuccesses(random, quantity, alwaysSuccessful), false);
+
+        io.println("Batch complete! Crafted **" + crafted + "/" + quantity + " " + recipe.name + "**.");
+        emitBatch(recipe, quantity, crafted);
+        return crafted;
     }
 }
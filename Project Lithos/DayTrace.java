@@ -0,0 +1,39 @@
+// What happened on one fast-forwarded day
+public final class DayTrace {
+    public final int day;
+    public final Weather weather;
+    public final int found;           // Explorations that found something
+    public final int nothing;         // Explorations that found nothing
+    public final int hazards;
+    public final int akioThefts;      // Day 10+: a crafted item stolen
+    public final int akioResets;      // Akio took everything
+    public final int crafted;         // Units produced by successful crafts
+    public final int craftsFailed;
+    public final int mealsEaten;      // Cooked Meat eaten to reset the exploration limit
+    public final GameSnapshot end;    // State when the player went to sleep
+
+    DayTrace(int day, Weather weather, int[] outcomes, int crafted, int craftsFailed, int mealsEaten, GameSnapshot end) {
+        this.day = day;
+        this.weather = weather;
+        this.found = outcomes[WorldState.Outcome.FOUND.ordinal()];
+        this.nothing = outcomes[WorldState.Outcome.NOTHING.ordinal()];
+        this.hazards = outcomes[WorldState.Outcome.HAZARD.ordinal()];
+        this.akioThefts = outcomes[WorldState.Outcome.AKIO_THEFT.ordinal()];
+        this.akioResets = outcomes[WorldState.Outcome.AKIO_RESET.ordinal()];
+        this.crafted = crafted;
+        this.craftsFailed = craftsFailed;
+        this.mealsEaten = mealsEaten;
+        this.end = end;
+    }
+
+    // Explorations made that day
+    public int explorations() {
+        return found + nothing + hazards + akioThefts + akioResets;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Day %d (%s): %d explorations, %d found, %d empty, %d hazards, %d crafted, %d failed",
+                day, weather.description, explorations(), found, nothing, hazards, crafted, craftsFailed);
+    }
+}
@@ -0,0 +1,216 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// The Deep Sea gacha as a Markov chain. The state is the set of Deep Sea items found since
+// the last Painite (a bit per drop table slot, as in WorldState's tracker). Each scan adds
+// whatever it rolls to the set, and once PAINITE_UNIQUE_ITEMS different items are in it,
+// Painite drops and the set starts over.
+//
+// Gives the exact distribution of attempts until Painite for each Weather, and an alias
+// table sampler that draws a whole gacha cycle's length in O(1) instead of rolling each scan.
+// Also gives the tracker's long-run distribution, for starting a run partway through a game.
+// scans() counts Deep Sea scans only; explorations() also counts explorations lost to a
+// hazard (no scan happens on those).
+public final class DeepSeaChain {
+    // Distributions stop once less than this much probability is left in the tail
+    private static final double TAIL = 1e-12;
+
+    private static final DeepSeaChain[] SCANS = new DeepSeaChain[Weather.values().length];
+    private static final DeepSeaChain[] EXPLORATIONS = new DeepSeaChain[Weather.values().length];
+
+    private final int slots;
+    private final double[] stay;            // Tracker state -> chance a step leaves it unchanged
+    private final double[][] next;          // Tracker state -> chance of moving to each larger transient state
+    private final double[] absorb;          // Tracker state -> chance the step awards Painite
+    private final double[] mean;            // Tracker state -> expected steps until Painite
+    private final double[] secondMoment;    // Tracker state -> E[steps^2]
+    private final double[] distribution;    // From an empty tracker: [t - 1] = P(Painite on step t)
+    private final AliasTable sampler;
+    private final AliasTable trackerSampler; // Tracker state, weighted by its share of a long game's steps
+
+    // Chances per slot (0-100) and the chance a step is lost before any scan (0-100)
+    DeepSeaChain(int[] slotChances, int lostChance) {
+        this.slots = slotChances.length;
+        if (slots >= 31) {
+            throw new IllegalArgumentException("Too many Deep Sea slots for a subset chain: " + slots);
+        }
+        int states = 1 << slots;
+        double lost = lostChance / 100.0;
+
+        // Chance of rolling exactly each mask on one scan
+        double[] maskChance = new double[states];
+        for (int mask = 0; mask < states; mask++) {
+            double p = 1.0;
+            for (int slot = 0; slot < slots; slot++) {
+                double chance = Math.min(Math.max(slotChances[slot], 0), 100) / 100.0;
+                p *= (mask & (1 << slot)) != 0 ? chance : 1 - chance;
+            }
+            maskChance[mask] = p;
+        }
+
+        stay = new double[states];
+        next = new double[states][];
+        absorb = new double[states];
+        for (int state = 0; state < states; state++) {
+            if (!isTransient(state)) continue;
+            next[state] = new double[states];
+            stay[state] = lost;
+            for (int mask = 0; mask < states; mask++) {
+                double p = (1 - lost) * maskChance[mask];
+                int to = state | mask;
+                if (!isTransient(to)) absorb[state] += p;
+                else if (to == state) stay[state] += p;
+                else next[state][to] += p;
+            }
+        }
+        if (Arrays.stream(absorb).allMatch(a -> a == 0)) {
+            throw new IllegalArgumentException("Painite can never be reached with these chances.");
+        }
+
+        // The tracker only grows, so solve from the fullest states down to the empty one
+        mean = new double[states];
+        secondMoment = new double[states];
+        Integer[] order = new Integer[states];
+        for (int i = 0; i < states; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.bitCount(b) - Integer.bitCount(a));
+        for (int state : order) {
+            if (!isTransient(state)) continue;
+            double m = 1.0;
+            double s = 1.0;
+            for (int to = 0; to < states; to++) {
+                double p = next[state][to];
+                if (p == 0) continue;
+                m += p * mean[to];
+                s += p * (2 * mean[to] + secondMoment[to]);
+            }
+            mean[state] = m / (1 - stay[state]);
+            // E[T^2] = 1 + 2 sum p m' + sum p s', where the sums include staying put
+            secondMoment[state] = (s + stay[state] * 2 * mean[state]) / (1 - stay[state]);
+        }
+
+        distribution = firstPassage();
+        sampler = new AliasTable(distribution);
+        trackerSampler = new AliasTable(visits(order));
+    }
+
+    // Deep Sea scans until Painite (what rollDeepSeaGacha sees)
+    public static synchronized DeepSeaChain scans(Weather weather) {
+        if (SCANS[weather.ordinal()] == null) {
+            SCANS[weather.ordinal()] = new DeepSeaChain(slotChances(weather), 0);
+        }
+        return SCANS[weather.ordinal()];
+    }
+
+    // Deep Sea Shore explorations until Painite, hazards included
+    public static synchronized DeepSeaChain explorations(Weather weather) {
+        if (EXPLORATIONS[weather.ordinal()] == null) {
+            EXPLORATIONS[weather.ordinal()] = new DeepSeaChain(slotChances(weather), DropTable.HAZARD_CHANCE);
+        }
+        return EXPLORATIONS[weather.ordinal()];
+    }
+
+    private static int[] slotChances(Weather weather) {
+        CompiledDropTable table = CompiledDropTable.of(Place.DEEP_SEA_SHORE, weather, true); // Fullness does not matter here
+        int[] chances = new int[table.size()];
+        for (int slot = 0; slot < chances.length; slot++) {
+            chances[slot] = table.threshold(slot);
+        }
+        return chances;
+    }
+
+    // Expected steps until Painite from an empty tracker
+    public double expectedAttempts() {
+        return mean[0];
+    }
+
+    // Expected steps until Painite from a tracker that already holds these slots
+    public double expectedAttempts(long tracker) {
+        return isTransient((int) tracker) ? mean[(int) tracker] : 0.0;
+    }
+
+    public double variance() {
+        return secondMoment[0] - mean[0] * mean[0];
+    }
+
+    // P(Painite comes on exactly this step), from an empty tracker
+    public double probability(int attempts) {
+        return attempts >= 1 && attempts <= distribution.length ? distribution[attempts - 1] : 0.0;
+    }
+
+    // P(Painite within this many steps), from an empty tracker
+    public double cumulative(int attempts) {
+        double total = 0;
+        for (int t = 0; t < Math.min(attempts, distribution.length); t++) total += distribution[t];
+        return total;
+    }
+
+    // Longest cycle the sampler can return (the tail past it holds under 1e-12)
+    public int maxAttempts() {
+        return distribution.length;
+    }
+
+    // Draws the length of one whole gacha cycle, from an empty tracker, in O(1)
+    public int sample(RandomGenerator rng) {
+        return sampler.sample(rng) + 1;
+    }
+
+    // Draws the tracker as it stands before a step at a random point of a long game, in O(1).
+    // A run that starts there instead of from an empty tracker sees Painite at the long-run rate
+    public long sampleTracker(RandomGenerator rng) {
+        return trackerSampler.sample(rng);
+    }
+
+    // Expected steps taken from each state during one cycle that starts empty. Over many cycles
+    // that is each state's share of all steps. 'order' lists the states fullest first
+    private double[] visits(Integer[] order) {
+        int states = 1 << slots;
+        double[] inflow = new double[states]; // Expected arrivals in each state
+        double[] visits = new double[states];
+        inflow[0] = 1.0;
+        for (int i = states - 1; i >= 0; i--) {
+            int state = order[i];
+            if (!isTransient(state)) continue;
+            visits[state] = inflow[state] / (1 - stay[state]);
+            for (int to = 0; to < states; to++) {
+                if (next[state][to] != 0) inflow[to] += visits[state] * next[state][to];
+            }
+        }
+        return visits;
+    }
+
+    // Pushes the state distribution forward one step at a time, collecting what gets absorbed
+    private double[] firstPassage() {
+        int states = 1 << slots;
+        double[] current = new double[states];
+        double[] following = new double[states];
+        current[0] = 1.0;
+        double remaining = 1.0;
+        double[] out = new double[64];
+        int steps = 0;
+        while (remaining > TAIL) {
+            Arrays.fill(following, 0);
+            double absorbed = 0;
+            for (int state = 0; state < states; state++) {
+                double p = current[state];
+                if (p == 0) continue;
+                absorbed += p * absorb[state];
+                following[state] += p * stay[state];
+                double[] row = next[state];
+                for (int to = 0; to < states; to++) {
+                    if (row[to] != 0) following[to] += p * row[to];
+                }
+            }
+            if (steps == out.length) out = Arrays.copyOf(out, steps * 2);
+            out[steps++] = absorbed;
+            remaining -= absorbed;
+            double[] swap = current;
+            current = following;
+            following = swap;
+        }
+        return Arrays.copyOf(out, steps);
+    }
+
+    private static boolean isTransient(int state) {
+        return Integer.bitCount(state) < DropTable.PAINITE_UNIQUE_ITEMS;
+    }
+}
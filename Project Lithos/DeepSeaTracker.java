@@ -0,0 +1,104 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+// Unique Deep Sea finds since the last Painite, as one word: bit i is set once the item in slot
+// i of the Deep Sea drop table has been found (the same bits WorldState and WorldPool keep).
+// Counting unique finds is a popcount, and a whole scan is added in one OR.
+//
+// Updates are lock-free compare-and-set, so players sharing an inventory can scan at the same
+// time and only one of them collects the Painite. An optional listener hears the new bits
+// after every change (JournaledInventory journals them).
+public final class DeepSeaTracker {
+    private static final CompiledDropTable TABLE = CompiledDropTable.of(Place.DEEP_SEA_SHORE, Weather.NORMAL, true);
+    private static final long[] BITS = bitsById(); // Registry id -> tracker bit (0 = not a Deep Sea drop)
+
+    private final AtomicLong found = new AtomicLong();
+    private final LongConsumer onChange; // Gets the bits after each change
+
+    public DeepSeaTracker() {
+        this(bits -> { });
+    }
+
+    public DeepSeaTracker(LongConsumer onChange) {
+        this.onChange = onChange;
+    }
+
+    // Tracker of an inventory that keeps one (JournaledInventory, SharedInventory), or null
+    public static DeepSeaTracker of(Inventory inventory) {
+        if (inventory instanceof JournaledInventory journaled) return journaled.getDeepSeaTracker();
+        if (inventory instanceof SharedInventory shared) return shared.getDeepSeaTracker();
+        return null;
+    }
+
+    // Tracker bit of a Deep Sea drop
+    public static long bitOf(String item) {
+        int id = MaterialRegistry.idOf(item);
+        long bit = id >= 0 && id < BITS.length ? BITS[id] : 0;
+        if (bit == 0) {
+            throw new IllegalArgumentException(item + " is not a Deep Sea drop.");
+        }
+        return bit;
+    }
+
+    public void add(String item) {
+        add(bitOf(item));
+    }
+
+    // Adds a scan's finds (CompiledDropTable.rollMask bits)
+    public void add(long mask) {
+        onChange.accept(found.accumulateAndGet(mask, (bits, more) -> bits | more));
+    }
+
+    // Adds a scan's finds; if that makes enough unique ones, empties the tracker and returns true
+    // (the Painite payout). Atomic, so concurrent scans pay out once per full set
+    public boolean collect(long mask, int needed) {
+        while (true) {
+            long bits = found.get();
+            long after = bits | mask;
+            boolean payout = Long.bitCount(after) >= needed;
+            if (found.compareAndSet(bits, payout ? 0 : after)) {
+                onChange.accept(payout ? 0 : after);
+                return payout;
+            }
+        }
+    }
+
+    public int uniqueCount() {
+        return Long.bitCount(found.get());
+    }
+
+    public void reset() {
+        setBits(0);
+    }
+
+    // The bits, for snapshots and save files
+    public long getBits() {
+        return found.get();
+    }
+
+    public void setBits(long bits) {
+        found.set(bits);
+        onChange.accept(bits);
+    }
+
+    // Replaces the bits only if nobody changed them since 'expected' was read
+    public boolean compareAndSet(long expected, long bits) {
+        if (!found.compareAndSet(expected, bits)) {
+            return false;
+        }
+        onChange.accept(bits);
+        return true;
+    }
+
+    private static long[] bitsById() {
+        int size = 0;
+        for (int slot = 0; slot < TABLE.size(); slot++) {
+            size = Math.max(size, TABLE.materialId(slot) + 1);
+        }
+        long[] bits = new long[size];
+        for (int slot = 0; slot < TABLE.size(); slot++) {
+            bits[TABLE.materialId(slot)] = 1L << slot;
+        }
+        return bits;
+    }
+}
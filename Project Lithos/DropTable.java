@@ -1,87 +1,127 @@
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
 
 public class DropTable {
-    private final Random random = new Random(); // Used for drop chances
+    // Shared roll constants (also used by the headless ExpeditionSimulator)
+    static final int HAZARD_CHANCE = 5;          // % chance an exploration hits a hazard
+    static final int DEEP_SEA_BASE_CHANCE = 20;  // % base chance per Deep Sea item
+    static final int PAINITE_UNIQUE_ITEMS = 3;   // Unique Deep Sea finds needed for Painite
+
+    private final GameRandom random;            // Used for drop chances
     private final Inventory inventory;          // Reference to player's inventory
+    private final GameIO io;                    // Where scan messages go
 
     public DropTable(Inventory inventory) {
         this.inventory = inventory; // Store inventory reference
+        GameState gameState = inventory != null ? inventory.getGameState() : null;
+        this.io = gameState != null ? gameState.getIO() : ConsoleIO.get();
+        this.random = gameState != null ? gameState.getRandom() : new GameRandom();
+    }
+
+    // Main material drop generator based on location, success rate, and weather multiplier.
+    // The names found replace the contents of 'found', a list the caller keeps and passes to
+    // every roll, so rolling allocates nothing once it has grown to a full drop
+    public void getMaterials(Place place, int baseSuccessRate, double weatherMultiplier, List<String> found) { 
+        getMaterials(place, baseSuccessRate, weatherMultiplier, null, found);
     }
 
-    // Main material drop generator based on location, success rate, and weather multiplier
-    public List<String> getMaterials(Place place, int baseSuccessRate, double weatherMultiplier) { 
-        List<String> found = new ArrayList<>();
+    // Same, with Deep Sea progress staged in the transaction (when the inventory keeps a
+    // DeepSeaTracker), so it only counts once the exploration commits. The caller announces
+    // a payout (announcePayout) after committing
+    public void getMaterials(Place place, int baseSuccessRate, double weatherMultiplier,
+                             GameTransaction transaction, List<String> found) { 
+        found.clear();
+
+        // Chances for this place/fullness/weather are precomputed once and cached
+        CompiledDropTable table = CompiledDropTable.forRoll(place, baseSuccessRate, weatherMultiplier);
         
         // Special case: Deep Sea uses its own gacha-based drop method
-        if (place == Place.DEEP_SEA_SHORE) {
-             found.addAll(rollDeepSeaGacha(weatherMultiplier));
-             return found;
+        if (table.isDeepSea()) {
+             rollDeepSeaGacha(table, transaction, found);
+             return;
         }
 
-        // Roll for common drops
-        for (Map.Entry<String, Integer> entry : place.commonDrops.entrySet()) {
-            // Scale chance by player's tools or skill (baseSuccessRate)
-            double baseChance = entry.getValue() * (baseSuccessRate / 50.0); 
-            
-            // Weather boosts or reduces chances
-            int effectiveChance = (int) (baseChance * weatherMultiplier / 2.0); 
-            
-            // Roll against chance
-            if (random.nextInt(100) < effectiveChance) {
-                found.add(entry.getKey());
-            }
-        }
-        
-        // Roll for rare drops
-        for (Map.Entry<String, Integer> entry : place.rareDrops.entrySet()) {
-            int chance = (int) (entry.getValue() * weatherMultiplier); // Weather applies directly
-            if (random.nextInt(100) < chance) {
-                found.add(entry.getKey());
-            }
-        }
-        
-        return found; // Return all found materials
+        // Roll common and rare drops in one pass
+        long mask = table.rollMask(random);
+        addNames(table, mask, found);
+        countRolls(table, mask);
     }
     
     // Special loot system for Deep Sea: 20% base chance gacha mechanic
-    private List<String> rollDeepSeaGacha(double weatherMultiplier) {
-        List<String> found = new ArrayList<>();
-        Random r = new Random();
+    private void rollDeepSeaGacha(CompiledDropTable table, GameTransaction transaction, List<String> found) {
+        io.println("Deep Sea Scan initiated (20% base drop chance)...");
         
-        System.out.println("Deep Sea Scan initiated (20% base drop chance)...");
-        
-        List<String> foundThisTurn = new ArrayList<>(); // Track unique drops this scan
-
         // Roll for each Deep Sea common item
-        for (Map.Entry<String, Integer> entry : Place.DEEP_SEA_SHORE.commonDrops.entrySet()) {
-            int effectiveChance = (int) (20 * weatherMultiplier); // 20% base × weather
-
-            if (r.nextInt(100) < effectiveChance) {
-                found.add(entry.getKey());
-                foundThisTurn.add(entry.getKey());
+        long mask = table.rollMask(random);
+        addNames(table, mask, found);
+        countRolls(table, mask);
+        
+        // Gacha bonus: if 3 different items have been found across attempts, drop Painite.
+        // With a DeepSeaTracker the whole scan is one OR into its bitmask and a popcount
+        DeepSeaTracker tracker = DeepSeaTracker.of(inventory);
+        if (tracker != null && transaction != null) {
+            // Staged: the tracker changes, and the caller announces the payout, on commit
+            if (transaction.addDeepSeaFinds(mask)) {
+                found.add("Painite");
             }
+            return;
         }
-        
-        // Log found minerals into inventory to track unique finds
-        for (String item : foundThisTurn) {
-            inventory.addDeepSeaItemFound(item);
+        boolean payout;
+        if (tracker != null) {
+            payout = tracker.collect(mask, PAINITE_UNIQUE_ITEMS);
+        } else {
+            for (String item : found) {
+                inventory.addDeepSeaItemFound(item);
+            }
+            payout = inventory.getUniqueDeepSeaItemsCount() >= PAINITE_UNIQUE_ITEMS;
+            if (payout) {
+                inventory.resetDeepSeaItemTracker(); // Reset tracker for next gacha cycle
+            }
         }
-        
-        // Gacha bonus: if 3 different items have been found across attempts, drop Painite
-        if (inventory.getUniqueDeepSeaItemsCount() >= 3) {
+        if (payout) {
             found.add("Painite"); // Guaranteed rare bonus
-            inventory.resetDeepSeaItemTracker(); // Reset tracker for next gacha cycle
-            System.out.println("\n*** GACHA BONUS! You found 3 different minerals! Guaranteed **Painite** drop! ***");
+            announcePayout();
         }
+    }
 
-        return found;
+    // The Painite payout message (and its metric)
+    public void announcePayout() {
+        Metrics.gachaPayout();
+        io.println("\n*** GACHA BONUS! You found 3 different minerals! Guaranteed **Painite** drop! ***");
+    }
+
+    // Turns a rolled slot mask back into material names
+    private static void addNames(CompiledDropTable table, long mask, List<String> out) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            out.add(MaterialRegistry.nameOf(table.materialId(Long.numberOfTrailingZeros(m))));
+        }
+    }
+
+    // Drop rate metrics: slots that dropped vs. slots that didn't
+    private static void countRolls(CompiledDropTable table, long mask) {
+        int hits = Long.bitCount(mask);
+        Metrics.dropRolls(table.getPlace(), hits, table.size() - hits);
     }
 
     // 5% chance to trigger a hazard (storm, monster, etc.)
     public boolean checkHazard() {
-        return random.nextInt(100) < 5;
+        boolean hazard = random.nextInt(100) < HAZARD_CHANCE;
+        if (hazard) Metrics.hazard();
+        return hazard;
+    }
+
+    // Common drop chance (0-100): scaled by base success rate, then halved and scaled by weather
+    static int commonChance(int dropChance, int baseSuccessRate, double weatherMultiplier) {
+        double baseChance = dropChance * (baseSuccessRate / 50.0);
+        return (int) (baseChance * weatherMultiplier / 2.0);
+    }
+
+    // Rare drop chance (0-100): weather applies directly
+    static int rareChance(int dropChance, double weatherMultiplier) {
+        return (int) (dropChance * weatherMultiplier);
+    }
+
+    // Deep Sea per-item chance (0-100): 20% base × weather
+    static int deepSeaChance(double weatherMultiplier) {
+        return (int) (DEEP_SEA_BASE_CHANCE * weatherMultiplier);
     }
 }
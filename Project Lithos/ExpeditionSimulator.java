@@ -0,0 +1,117 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Headless expedition runner for drop-rate balancing.
+// Replays the Explore/DropTable rolls with no Scanner, no console output and no Inventory.
+public class ExpeditionSimulator {
+    // Expeditions per task. Fixed so the work split (and the result) never depends on thread count
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private final Place place;
+    private final boolean kinoRevived;       // Kino doubles every find
+    private final CompiledDropTable table;   // Precomputed chances for this place/weather/fullness
+    private final DeepSeaChain deepSea;      // The Painite gacha at this weather (Deep Sea Shore only)
+
+    // fed = fullness above 0 (65% base success), otherwise 50%
+    public ExpeditionSimulator(Place place, Weather weather, boolean fed, boolean kinoRevived) {
+        this.place = place;
+        this.kinoRevived = kinoRevived;
+        this.table = CompiledDropTable.of(place, weather, fed);
+        this.deepSea = table.isDeepSea() ? DeepSeaChain.explorations(weather) : null;
+    }
+
+    // Runs the given number of expeditions on all cores. Same seed -> same result, on any machine
+    public SimulationResult run(long expeditions, long seed) {
+        if (expeditions < 0) {
+            throw new IllegalArgumentException("Expedition count cannot be negative: " + expeditions);
+        }
+
+        int chunks = (int) ((expeditions + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+        // Split one RNG per chunk up front, in chunk order, so chunk i always gets the same stream
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            rngs[i] = root.split();
+        }
+
+        // Layout: [one slot per material id..., hazards, empty expeditions]
+        int slots = MaterialRegistry.size() + 2;
+
+        // Summing is order independent, so the parallel reduction stays deterministic
+        long[] totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(i -> runChunk(rngs[i], i == 0, (int) Math.min(CHUNK_SIZE, expeditions - (long) i * CHUNK_SIZE), slots))
+                .reduce(ExpeditionSimulator::merge)
+                .orElseGet(() -> new long[slots]);
+
+        // Report every material this place can drop, in slot order
+        int extra = table.isDeepSea() ? 1 : 0;
+        String[] materials = new String[table.size() + extra];
+        long[] counts = new long[materials.length];
+        for (int slot = 0; slot < table.size(); slot++) {
+            materials[slot] = MaterialRegistry.nameOf(table.materialId(slot));
+            counts[slot] = totals[table.materialId(slot)];
+        }
+        if (table.isDeepSea()) {
+            materials[table.size()] = MaterialRegistry.nameOf(MaterialRegistry.PAINITE);
+            counts[table.size()] = totals[MaterialRegistry.PAINITE];
+        }
+
+        return new SimulationResult(place, expeditions, totals[slots - 2], totals[slots - 1], materials, counts);
+    }
+
+    // Plays one chunk of expeditions; the only allocation is the chunk's own count array.
+    // The first chunk starts with an empty Deep Sea tracker, like a new game. Later chunks stand
+    // for the middle of that game, so their tracker starts from the chain's long-run distribution
+    // rather than empty (which would hand out Painite less often than the game does)
+    private long[] runChunk(SplittableRandom rng, boolean first, int expeditions, int slots) {
+        int[] counts = new int[slots - 2];
+        long hazards = 0;
+        long empty = 0;
+        int yield = kinoRevived ? 2 : 1;
+        // Bit per Deep Sea slot found since the last Painite
+        long deepSeaTracker = first || deepSea == null ? 0 : deepSea.sampleTracker(rng);
+
+        for (int e = 0; e < expeditions; e++) {
+            // Same order as Explore: hazard first, then the drop rolls
+            if (rng.nextInt(100) < DropTable.HAZARD_CHANCE) {
+                hazards++;
+                continue;
+            }
+
+            long mask = table.rollMask(rng);
+            table.addTo(mask, counts, yield);
+            boolean foundAny = mask != 0;
+
+            // Deep Sea gacha: enough unique finds -> guaranteed Painite, tracker resets
+            if (table.isDeepSea()) {
+                deepSeaTracker |= mask;
+                if (Long.bitCount(deepSeaTracker) >= DropTable.PAINITE_UNIQUE_ITEMS) {
+                    counts[MaterialRegistry.PAINITE] += yield;
+                    deepSeaTracker = 0;
+                    foundAny = true;
+                }
+            }
+
+            if (!foundAny) {
+                empty++;
+            }
+        }
+
+        long[] totals = new long[slots];
+        for (int i = 0; i < counts.length; i++) {
+            totals[i] = counts[i];
+        }
+        totals[slots - 2] = hazards;
+        totals[slots - 1] = empty;
+        return totals;
+    }
+
+    // Adds b into a (each chunk owns its array, so a can be reused)
+    private static long[] merge(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+}
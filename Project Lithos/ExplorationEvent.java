@@ -0,0 +1,19 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event around one exploration, from place choice to loot (see Explore.explorePlace)
+@Name("lithos.Exploration")
+@Label("Exploration")
+@Category("Project Lithos")
+public class ExplorationEvent extends Event {
+    @Label("Place")
+    String place;
+
+    @Label("Day")
+    int day;
+
+    @Label("Weather")
+    String weather;
+}
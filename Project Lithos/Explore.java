@@ -1,18 +1,19 @@
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.Scanner;
 
 public class Explore {
     private final GameState gameState;        // Holds current day, weather, flags, explorations left, etc.
     private final Inventory inventory;        // Player's inventory (materials, crafted items, fullness)
-    private final Random random = new Random(); // For RNG events (Akio, hazards)
-    private final Scanner sc = new Scanner(System.in); // For user input
+    private final GameRandom random;          // Shared game RNG for events (Akio, hazards)
+    private final GameIO io;                  // Player input and game output
     private final DropTable dropTable;        // Handles material drops for each Place
+    private final List<String> found = new ArrayList<>(); // Materials of the current exploration, reused every roll
 
     public Explore(GameState gameState) {
         this.gameState = gameState;                  // Save reference to game state
         this.inventory = gameState.getInventory();   // Get inventory from game state
+        this.io = gameState.getIO();                 // Same I/O port as the rest of the game
+        this.random = gameState.getRandom();         // Same RNG as the rest of the game
         this.dropTable = new DropTable(inventory);   // Initialize drop table using same inventory
     }
 
@@ -20,17 +21,17 @@ public class Explore {
         while(true) { // Main exploration loop
             if (gameState.getExplorationsLeft() <= 0) {
                 // Reached daily exploration cap
-                System.out.println("\n--- Energy Exhausted ---");
-                System.out.println("You have reached the daily exploration limit (10).");
-                System.out.println("You must \'Sleep\' to advance to the next day, or eat \'Cooked Meat\' to continue today.");
-                System.out.print("Type 'back' to return to Main Menu: ");
-                sc.nextLine(); 
+                io.println("\n--- Energy Exhausted ---");
+                io.println("You have reached the daily exploration limit (10).");
+                io.println("You must \'Sleep\' to advance to the next day, or eat \'Cooked Meat\' to continue today.");
+                io.print("Type 'back' to return to Main Menu: ");
+                io.readLine(); 
                 break;
             }
             
             // Header showing day, attempts left, and weather
-            System.out.println("\n--- Exploration (Day " + gameState.getCurrentDay() + ": " + gameState.getExplorationsLeft() + " attempts left) ---");
-            System.out.println("Weather: " + gameState.getTodayWeather().description + " (" + gameState.getTodayWeather().flavorText + ")");
+            io.println("\n--- Exploration (Day " + gameState.getCurrentDay() + ": " + gameState.getExplorationsLeft() + " attempts left) ---");
+            io.println("Weather: " + gameState.getTodayWeather().description + " (" + gameState.getTodayWeather().flavorText + ")");
             
             // Base available places; Cave requires map fragment, Deep Sea unlocks at Day 5+
             String places = "1. River  2. Forest  3. Rocky Beach" + (gameState.hasMapFragment() ? "  4. Cave" : "");
@@ -38,9 +39,9 @@ public class Explore {
                 places += "  5. Deep Sea Shore";
             }
             
-            System.out.println("Available Places: " + places);
-            System.out.print("Enter place (Name/Number) or 'back': ");
-            String placeInput = sc.nextLine().trim();
+            io.println("Available Places: " + places);
+            io.print("Enter place (Name/Number) or 'back': ");
+            String placeInput = io.readLine().trim();
 
             if (placeInput.equalsIgnoreCase("back")) {
                 break; // Exit explore menu back to main menu
@@ -48,10 +49,13 @@ public class Explore {
             
             explorePlace(placeInput);   // Handle the exploration logic for chosen place
             inventory.decreaseFullness(); // Exploring costs fullness each time
+            gameState.flushJournal();
         }
     }
 
     public void explorePlace(String placeInput) {
+        ExplorationEvent event = new ExplorationEvent(); // JFR: timed only while a recording is running
+        event.begin();
         try {
             Place selectedPlace;
             String normalized = placeInput.trim().toLowerCase(); // Normalize input for easier matching
@@ -77,47 +81,62 @@ public class Explore {
                 }
                 default -> throw new PlaceNotFoundException("Unknown place: " + placeInput);
             };
+            Metrics.explored(selectedPlace);
+            event.place = selectedPlace.name;
+
+            // Every change this exploration makes is staged here and applied in one commit,
+            // so an error partway through leaves the game untouched
+            GameTransaction exploration = new GameTransaction(gameState);
 
             // Akio-related mechanics if he is revived
             if (gameState.isAkioRevived()) {
                 // After Day 10, 25% chance that Akio steals a crafted item at the start of exploration
                 if (gameState.getCurrentDay() >= 10 && random.nextInt(100) < 25) { 
                     if (inventory.getCraftedItemCount() > 0) {
-                        inventory.removeRandomCraftedItem();
-                        System.out.println("\n!!! AKIO ATTACK !!! Akio stole a **Crafted Item** and vanished!");
-                        gameState.decrementExploration();
+                        exploration.removeRandomCraftedItem();
+                        exploration.decrementExploration();
+                        if (commit(exploration)) {
+                            io.println("\n!!! AKIO ATTACK !!! Akio stole a **Crafted Item** and vanished!");
+                            io.emit(new GameEvent(GameEvent.Type.AKIO_THEFT, selectedPlace.name));
+                        }
                         return;
                     }
                 }
                 // Main Akio effect: inventory reset and exploration ends
-                System.out.println("\nAkio revived! He stole all your things... Inventory reset.");
-                gameState.reviveAkio();
+                exploration.reviveAkio();
+                if (commit(exploration)) {
+                    io.println("\nAkio revived! He stole all your things... Inventory reset.");
+                    io.emit(new GameEvent(GameEvent.Type.INVENTORY_LOST, selectedPlace.name));
+                }
                 return;
             }
 
             // Announce exploration start
-            System.out.println("\nExploring the " + selectedPlace.name + "...");
+            io.println("\nExploring the " + selectedPlace.name + "...");
 
             // Check for hazard (using DropTable's hazard roll)
             if (dropTable.checkHazard()) {
-                System.out.println("Oh no! You encountered a hazard.");
+                io.println("Oh no! You encountered a hazard.");
+                io.emit(new GameEvent(GameEvent.Type.HAZARD, selectedPlace.name));
                 
                 // Priority of what is lost to escape the hazard
-                if (inventory.hasMaterial("Stone")) {
-                    inventory.useMaterial("Stone", 1);
-                    System.out.println("You used 1 Stone to patch a hole in your bag. You are safe.");
-                } else if (inventory.getMaterialCount("Cooked Meat") > 0) {
-                     inventory.useMaterial("Cooked Meat", 1);
-                     System.out.println("You dropped a piece of Cooked Meat while running. You are safe.");
+                String loss;
+                if (exploration.useMaterial("Stone", 1)) {
+                    loss = "You used 1 Stone to patch a hole in your bag. You are safe.";
+                } else if (exploration.useMaterial("Cooked Meat", 1)) {
+                    loss = "You dropped a piece of Cooked Meat while running. You are safe.";
                 } else if (inventory.getCraftedItemCount() > 0) {
-                    System.out.println("You barely escaped, but you lost a crafted item!");
-                    inventory.removeRandomCraftedItem(); 
+                    loss = "You barely escaped, but you lost a crafted item!";
+                    exploration.removeRandomCraftedItem(); 
                 } else {
-                    System.out.println("You narrowly escaped, but are exhausted (Fullness reset).");
-                    inventory.decreaseFullness(); 
+                    loss = "You narrowly escaped, but are exhausted (Fullness reset).";
+                    exploration.decreaseFullness(); 
                 }
 
-                gameState.decrementExploration(); // Exploration attempt consumed
+                exploration.decrementExploration(); // Exploration attempt consumed
+                if (commit(exploration)) {
+                    io.println(loss);
+                }
                 return;
             }
             
@@ -126,41 +145,72 @@ public class Explore {
             double weatherMultiplier = gameState.getTodayWeather().multiplier;
 
             // Ask DropTable to generate materials based on place, success, weather
-            List<String> found = dropTable.getMaterials(selectedPlace, baseSuccessRate, weatherMultiplier); 
+            // (Deep Sea progress is staged in the exploration too, so it is lost with it)
+            dropTable.getMaterials(selectedPlace, baseSuccessRate, weatherMultiplier, exploration, found); 
 
             // Nothing found this time
             if (found.isEmpty()) {
-                System.out.println("No luck. You didn't find any material.");
-                gameState.decrementExploration(); 
+                exploration.decrementExploration(); 
+                if (commit(exploration)) {
+                    io.println("No luck. You didn't find any material.");
+                    io.emit(new GameEvent(GameEvent.Type.NOTHING_FOUND, selectedPlace.name));
+                }
                 return;
             }
             
-            // Kino doubles all findings when revived
+            // Kino doubles all findings when revived (added twice, no copy of the list needed)
+            int yield = 1;
             if (gameState.isKinoRevived()) {
-                System.out.println("Kino's blessing doubled your findings!");
-                List<String> duplicated = new ArrayList<>(found);
-                found.addAll(duplicated);
+                io.println("Kino's blessing doubled your findings!");
+                yield = 2;
             }
 
             // Bem currently provides flavor/immersion message
             if (gameState.isBemRevived()) {
-                System.out.println("Bem accompanies you. You feel safer.");
+                io.println("Bem accompanies you. You feel safer.");
             }
 
-            // Add each found item to inventory as raw materials
+            // Add each found item to inventory as raw materials, and use up 1 exploration attempt
             for (String item : found) {
-                inventory.addRawMaterial(item, 1);
+                exploration.addRawMaterial(item, yield);
+            }
+            exploration.decrementExploration();
+            if (!commit(exploration)) {
+                return;
+            }
+            if (selectedPlace == Place.DEEP_SEA_SHORE && found.contains("Painite")) {
+                dropTable.announcePayout();
+            }
+            for (String item : found) {
+                io.emit(new GameEvent(GameEvent.Type.MATERIAL_FOUND, item, yield));
             }
 
-            System.out.println("You found: " + found);
-            gameState.decrementExploration();  // Use up 1 exploration attempt
+            String items = String.join(", ", found);
+            io.println("You found: [" + (yield == 2 ? items + ", " + items : items) + "]");
             
         } catch (PlaceNotFoundException e) {
             // Handles invalid or locked location choices
-            System.out.println("Explore error: " + e.getMessage());
+            io.println("Explore error: " + e.getMessage());
+            io.emit(new GameEvent(GameEvent.Type.PLACE_LOCKED, placeInput));
         } catch (Exception e) {
             // Fallback in case of unexpected runtime errors
-            System.out.println("Unexpected error during explore: " + e.getMessage());
+            io.println("Unexpected error during explore: " + e.getMessage() + " Nothing was changed.");
+        } finally {
+            if (event.shouldCommit()) {
+                event.day = gameState.getCurrentDay();
+                event.weather = gameState.getTodayWeather().name();
+                event.commit();
+            }
+        }
+    }
+
+    // Applies an exploration's changes. Only refused if the game changed under it (e.g. a shared
+    // inventory spent the Stone meant for a hazard), in which case nothing happens
+    private boolean commit(GameTransaction exploration) {
+        if (exploration.commit()) {
+            return true;
         }
+        io.println("The world shifted while you were out. You come back empty-handed.");
+        return false;
     }
 }
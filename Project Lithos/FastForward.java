@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// Plays whole days headless with an automated Strategy: explore, craft, eat, sleep, repeat.
+// All game rules come from WorldState (weather rolled each night, the Deep Sea Shore opening
+// on Day 5, Akio's Day 10 thefts), so a fast-forwarded day follows the same rules as a played one.
+//
+// run() gives a per-day trace of one game; runMany() plays many seeds in parallel on a
+// ForkJoinPool and only keeps the totals, so 100k runs fit in memory.
+// Weather follows the standard odds unless a WeatherModel is given; a WeatherSequence
+// makes every run play the same season.
+public final class FastForward {
+    // A strategy that keeps asking for impossible crafts must not hang the run
+    private static final int MAX_CRAFTS_PER_STEP = 10_000;
+    // Nor may one that keeps exploring or eating without the day ever running out
+    private static final int MAX_STEPS_PER_DAY = 10_000;
+
+    private FastForward() {}
+
+    // One game from the given state, with a trace of every day
+    public static List<DayTrace> run(GameSnapshot start, Strategy strategy, int days, long seed) {
+        return run(start, strategy, IndependentWeather.STANDARD, days, seed);
+    }
+
+    public static List<DayTrace> run(GameSnapshot start, Strategy strategy, WeatherModel weather, int days, long seed) {
+        List<DayTrace> trace = new ArrayList<>(days);
+        play(new WorldState(start), strategy, weather, days, new GameRandom(seed), trace);
+        return trace;
+    }
+
+    // Many games from the same state on the common ForkJoinPool. Same seed -> same totals
+    public static FastForwardStats runMany(GameSnapshot start, Supplier<? extends Strategy> strategies,
+                                           int days, int runs, long seed) {
+        return runMany(start, strategies, days, runs, seed, ForkJoinPool.commonPool());
+    }
+
+    public static FastForwardStats runMany(GameSnapshot start, Supplier<? extends Strategy> strategies,
+                                           int days, int runs, long seed, ForkJoinPool pool) {
+        return runMany(start, strategies, IndependentWeather.STANDARD, days, runs, seed, pool);
+    }
+
+    public static FastForwardStats runMany(GameSnapshot start, Supplier<? extends Strategy> strategies, WeatherModel weather,
+                                           int days, int runs, long seed, ForkJoinPool pool) {
+        if (runs < 0) {
+            throw new IllegalArgumentException("Run count cannot be negative: " + runs);
+        }
+
+        // One seed per run, drawn in run order, so run i always plays the same game
+        long[] seeds = new long[runs];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < runs; i++) {
+            seeds[i] = root.nextLong();
+        }
+
+        return pool.submit(() -> IntStream.range(0, runs).parallel()
+                .collect(FastForwardStats::new,
+                        (stats, i) -> stats.add(play(new WorldState(start), strategies.get(), weather, days, new GameRandom(seeds[i]), null)),
+                        FastForwardStats::merge))
+                .join();
+    }
+
+    // Plays the days; trace is filled when given. Returns the final state
+    static WorldState play(WorldState state, Strategy strategy, WeatherModel weather, int days, GameRandom rng, List<DayTrace> trace) {
+        for (int d = 0; d < days; d++) {
+            int[] outcomes = new int[WorldState.Outcome.values().length];
+            int crafted = 0;
+            int craftsFailed = 0;
+            int mealsEaten = 0;
+
+            for (int step = 0; step < MAX_STEPS_PER_DAY; step++) {
+                // Crafting first, as long as the strategy asks for something that can be made
+                for (int i = 0; i < MAX_CRAFTS_PER_STEP; i++) {
+                    Recipe recipe = strategy.nextCraft(state);
+                    if (recipe == null) break;
+                    boolean catalyst = strategy.useCatalyst(state, recipe);
+                    if (state.isBuilt(recipe) || !recipe.hasInputs(state::getMaterialCount, 1, catalyst)) break;
+                    int produced = state.craft(recipe, catalyst, rng);
+                    if (produced > 0) crafted += produced;
+                    else craftsFailed++;
+                }
+
+                if (state.getExplorationsLeft() == 0) {
+                    if (strategy.eatCookedMeat(state) && state.eatCookedMeat()) {
+                        mealsEaten++;
+                        continue;
+                    }
+                    break;
+                }
+
+                Place place = strategy.nextExploration(state);
+                if (place == null) break;
+                WorldState.Outcome outcome = state.explore(place, rng);
+                outcomes[outcome.ordinal()]++;
+                if (outcome == WorldState.Outcome.LOCKED) break; // Asking again would never get anywhere today
+                // Akio's reset doesn't use an attempt and he stays around, so exploring again would
+                // only repeat it; like a player who has just lost everything, call it a day
+                if (outcome == WorldState.Outcome.AKIO_RESET) break;
+            }
+
+            if (trace != null) {
+                trace.add(new DayTrace(state.getCurrentDay(), state.getWeather(), outcomes,
+                        crafted, craftsFailed, mealsEaten, state.toSnapshot()));
+            }
+            state.sleep(weather, rng);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+// Totals over many fast-forwarded runs: mean and variance of each material held at the end,
+// plus how often each companion was active. Built by FastForward.runMany; partial results
+// from parallel tasks are merged with merge().
+public final class FastForwardStats {
+    private long runs;
+    private long[] sum = new long[MaterialRegistry.size()];       // Per material id: sum of final counts
+    private long[] sumSquares = new long[MaterialRegistry.size()];     // Exact, so parallel merges are order independent
+    private long craftedItems;                                      // Sum of final crafted item totals
+    private long kino;
+    private long bem;
+    private long akio;
+
+    // Adds one finished run
+    void add(WorldState end) {
+        runs++;
+        if (sum.length < MaterialRegistry.size()) grow(MaterialRegistry.size());
+        for (int id = 0; id < sum.length; id++) {
+            long count = end.getMaterialCount(id);
+            sum[id] += count;
+            sumSquares[id] += count * count;
+        }
+        craftedItems += end.getCraftedItemCount();
+        if (end.has(GameSnapshot.KINO_REVIVED)) kino++;
+        if (end.has(GameSnapshot.BEM_REVIVED)) bem++;
+        if (end.has(GameSnapshot.AKIO_REVIVED)) akio++;
+    }
+
+    // Folds another partial result into this one and returns this
+    FastForwardStats merge(FastForwardStats other) {
+        if (sum.length < other.sum.length) grow(other.sum.length);
+        for (int id = 0; id < other.sum.length; id++) {
+            sum[id] += other.sum[id];
+            sumSquares[id] += other.sumSquares[id];
+        }
+        runs += other.runs;
+        craftedItems += other.craftedItems;
+        kino += other.kino;
+        bem += other.bem;
+        akio += other.akio;
+        return this;
+    }
+
+    private void grow(int size) {
+        sum = Arrays.copyOf(sum, size);
+        sumSquares = Arrays.copyOf(sumSquares, size);
+    }
+
+    public long getRuns() { return runs; }
+
+    // Average amount of a material held at the end of a run
+    public double getMean(String material) {
+        int id = MaterialRegistry.idOf(material);
+        return id < 0 || id >= sum.length || runs == 0 ? 0.0 : (double) sum[id] / runs;
+    }
+
+    public double getVariance(String material) {
+        int id = MaterialRegistry.idOf(material);
+        if (id < 0 || id >= sum.length || runs < 2) return 0.0;
+        double mean = (double) sum[id] / runs;
+        return (sumSquares[id] - runs * mean * mean) / (runs - 1);
+    }
+
+    public double getMeanCraftedItems() {
+        return runs == 0 ? 0.0 : (double) craftedItems / runs;
+    }
+
+    // Share of runs (0-1) that ended with this companion active (GameSnapshot companion bit)
+    public double getCompanionRate(int companion) {
+        if (runs == 0) return 0.0;
+        return switch (companion) {
+            case GameSnapshot.KINO_REVIVED -> (double) kino / runs;
+            case GameSnapshot.BEM_REVIVED -> (double) bem / runs;
+            case GameSnapshot.AKIO_REVIVED -> (double) akio / runs;
+            default -> throw new IllegalArgumentException("Not a companion flag: " + companion);
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(runs).append(" runs, ").append(String.format("%.2f", getMeanCraftedItems())).append(" crafted items on average\n");
+        for (int id = 0; id < sum.length; id++) {
+            if (sum[id] != 0) {
+                String name = MaterialRegistry.nameOf(id);
+                sb.append(String.format("  %-15s mean %10.3f  sd %9.3f%n", name, getMean(name), Math.sqrt(getVariance(name))));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,35 @@
+// Something that happened in the game, in a form code can inspect without parsing the text output
+public final class GameEvent {
+    public enum Type {
+        DAY_STARTED,        // subject = weather description, amount = new day
+        MATERIAL_FOUND,     // subject = material, amount = quantity added
+        NOTHING_FOUND,      // subject = place
+        HAZARD,             // subject = place
+        PLACE_LOCKED,       // subject = place input
+        AKIO_THEFT,         // Akio stole a crafted item
+        INVENTORY_LOST,     // Akio took everything
+        CRAFT_SUCCEEDED,    // subject = recipe, amount = units produced
+        CRAFT_FAILED,       // subject = recipe, amount = units attempted
+        COMPANION_REVIVED,  // subject = companion name
+        GAME_WON
+    }
+
+    public final Type type;
+    public final String subject;
+    public final int amount;
+
+    public GameEvent(Type type, String subject, int amount) {
+        this.type = type;
+        this.subject = subject;
+        this.amount = amount;
+    }
+
+    public GameEvent(Type type, String subject) {
+        this(type, subject, 0);
+    }
+
+    @Override
+    public String toString() {
+        return type + (subject == null ? "" : " " + subject) + (amount == 0 ? "" : " x" + amount);
+    }
+}
@@ -0,0 +1,19 @@
+// Port between the game and whoever is playing it.
+// Commands come in as lines of text; output goes out as text plus structured GameEvents.
+// ConsoleIO plays on the terminal, InMemoryIO replays scripted sessions at full speed.
+public interface GameIO {
+    // Next line of player input (throws java.util.NoSuchElementException when input has ended)
+    String readLine();
+
+    // Text output, same meaning as System.out.print/println
+    void print(String text);
+
+    void println(String text);
+
+    default void println() {
+        println("");
+    }
+
+    // Structured record of something that happened (materials found, craft results, day changes...)
+    void emit(GameEvent event);
+}
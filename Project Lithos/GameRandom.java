@@ -0,0 +1,95 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+// The one source of randomness for a game. GameState owns it and every subsystem
+// (Explore, DropTable, Create, AlchemyTable, weather) rolls through it or a stream of it, so a game
+// started from the same seed with the same commands plays out the same way.
+// Not thread-safe, like the game itself; parallel runs take their own stream with split().
+// A part of the game whose number of rolls shouldn't shift everyone else's (weather, which
+// can be forecast any number of days ahead) takes a named stream().
+public final class GameRandom implements RandomGenerator {
+    private long seed;                 // Seed of the current stream, so a run can be repeated
+    private SplittableRandom random;
+    private final Map<String, GameRandom> streams = new LinkedHashMap<>(); // Named streams, reseeded with this one
+    private long salt;                 // Set on a named stream: its name's hash
+    private int splits;                // Children split off since the last reseed
+
+    // Random seed (still readable with getSeed() for reproducing the run)
+    public GameRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    public GameRandom(long seed) {
+        reseed(seed);
+    }
+
+    // Restarts the stream from a seed. Subsystems keep their reference, so this reseeds the whole game
+    public void reseed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.splits = 0;
+        for (GameRandom stream : streams.values()) {
+            stream.reseed(streamSeed(seed, stream.salt));
+        }
+    }
+
+    // Separate stream for one part of the game. Its seed comes from this stream's seed and the
+    // name, so it is the same for every run of a seed, and reseeding this one reseeds it too.
+    // Asking for the same name again returns the same stream
+    public GameRandom stream(String name) {
+        return streams.computeIfAbsent(name, key -> {
+            GameRandom stream = new GameRandom(streamSeed(seed, key.hashCode()));
+            stream.salt = key.hashCode();
+            return stream;
+        });
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Independent child stream for another thread or task; advances this one by one step.
+    // The child is SplittableRandom's own split (a fresh gamma, not just a new seed). Its getSeed()
+    // is derived from this stream's seed and how many children came before it: it names the child
+    // in logs, and the same seed splitting in the same order gives the same children
+    public GameRandom split() {
+        SplittableRandom child = random.split();
+        return new GameRandom(streamSeed(seed, ~(long) splits++), child);
+    }
+
+    private GameRandom(long seed, SplittableRandom random) {
+        this.seed = seed;
+        this.random = random;
+    }
+
+    private static long streamSeed(long seed, long salt) {
+        return new SplittableRandom(seed ^ salt * 0x9e3779b97f4a7c15L).nextLong();
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hosts many independent games in one JVM. Every session gets its own Main, and with it
+// its own GameState, Inventory, Explore, Create and AlchemyTable, and its own save file
+// (lithos-<random UUID>.sav, deleted when the session ends, so no later player can load it);
+// nothing is shared between worlds except read-only tables
+// (recipes, compiled drop chances, material names). Screens that still print to System.out
+// (the inventory lists, the Guide Book) are routed to the session's port by ThreadOutput.
+//
+// Players connect over a local socket (one line of text per command, e.g. with "nc localhost 4000")
+// or are hosted in-process with host(GameIO). Each session runs on its own virtual thread when
+// the JVM has them (Java 21+), so idle players blocked on input cost no OS thread; older JVMs
+// fall back to a cached pool of platform threads.
+//
+// Play metrics are published over JMX as "lithos:type=Metrics"; --metrics=<seconds> also prints them.
+//
+//   java GameServer [port] [--pacing=instant|fast] [--metrics=<seconds>]
+public final class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 4000;
+
+    private final Pacing pacing;
+    private final ExecutorService sessions;
+    private final boolean virtualThreads;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    private ServerSocket serverSocket;   // Set once listen() has been called
+    private Thread acceptor;
+
+    public GameServer(Pacing pacing) {
+        this.pacing = pacing;
+
+        ExecutorService executor;
+        boolean virtual;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtual = true;
+        } catch (ReflectiveOperationException e) {
+            executor = Executors.newCachedThreadPool(); // No virtual threads: one platform thread per session
+            virtual = false;
+        }
+        this.sessions = executor;
+        this.virtualThreads = virtual;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) port = Integer.parseInt(arg);
+            else if (arg.startsWith("--metrics=")) Metrics.startDump(Long.parseLong(arg.substring("--metrics=".length())), System.out);
+        }
+        Metrics.registerMBean();
+
+        GameServer server = new GameServer(Pacing.fromArgs(args));
+        server.listen(port);
+        System.out.println("Project Lithos server listening on port " + server.getPort()
+                + (server.usesVirtualThreads() ? " (virtual threads)." : " (platform threads)."));
+    }
+
+    // Starts a new world for a player who is already connected through the given port
+    public Future<?> host(GameIO io) {
+        return sessions.submit(() -> runSession(io));
+    }
+
+    // Accepts players on a local TCP port (0 picks a free one); each connection is a new world
+    public synchronized void listen(int port) throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Already listening on port " + serverSocket.getLocalPort() + ".");
+        }
+        serverSocket = new ServerSocket(port);
+        acceptor = new Thread(this::acceptPlayers, "lithos-acceptor");
+        acceptor.start();
+    }
+
+    private void acceptPlayers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.submit(() -> {
+                    try (socket) {
+                        runSession(new StreamIO(socket.getInputStream(), socket.getOutputStream()));
+                    } catch (IOException e) {
+                        // Connection dropped before or after the game; nothing to clean up
+                    }
+                });
+            } catch (IOException e) {
+                // accept() fails once close() shuts the socket; any other failure ends accepting too
+                return;
+            }
+        }
+    }
+
+    private void runSession(GameIO io) {
+        activeSessions.incrementAndGet();
+        Path savePath = Paths.get("lithos-" + UUID.randomUUID() + ".sav"); // Never reused, even across restarts
+        try {
+            ThreadOutput.routeTo(io, () -> new Main(io, pacing, savePath).run());
+            if (io instanceof StreamIO) ((StreamIO) io).flush(); // Goodbye message
+        } catch (NoSuchElementException | UncheckedIOException | IOException e) {
+            // Player went away mid-game
+        } finally {
+            activeSessions.decrementAndGet();
+            try {
+                Files.deleteIfExists(savePath); // Saves only last as long as the session
+            } catch (IOException e) {
+                // Left behind; the name is never handed out again
+            }
+        }
+    }
+
+    // Games currently being played
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Port being listened on, or -1 before listen()
+    public synchronized int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    // Stops accepting players and interrupts running sessions
+    @Override
+    public synchronized void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        sessions.shutdownNow();
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.Objects;
+
+// Point-in-time copy of a game: every GameState field plus the Inventory's materials, crafted
+// items, structures, fullness and Deep Sea finds. Plain primitives, so it is cheap to keep,
+// compare and save.
+public final class GameSnapshot {
+    // Bits of 'flags'
+    public static final int KINO_REVIVED = 1;
+    public static final int BEM_REVIVED = 1 << 1;
+    public static final int AKIO_REVIVED = 1 << 2;
+    public static final int ALWAYS_SUCCESSFUL_CRAFT = 1 << 3;
+    public static final int MAP_FRAGMENT = 1 << 4;
+    public static final int FURNACE = 1 << 5;
+    public static final int ALCHEMY_TABLE = 1 << 6;
+    // The companion bits, which GameState keeps as one word
+    public static final int COMPANIONS = KINO_REVIVED | BEM_REVIVED | AKIO_REVIVED | ALWAYS_SUCCESSFUL_CRAFT;
+
+    public final int currentDay;
+    public final int explorationsLeft;
+    public final Weather weather;
+    public final int platinumChance;
+    public final int fullness;
+    public final int flags;           // Companion, map fragment and structure bits above
+    public final long deepSeaTracker; // DeepSeaTracker bits: unique Deep Sea finds since the last Painite
+    private final int[] materials;    // Count per MaterialRegistry id
+    private final int[] craftedItems; // Count per CraftedItemRegistry id
+
+    public GameSnapshot(int currentDay, int explorationsLeft, Weather weather, int platinumChance,
+                        int fullness, int flags, int[] materials) {
+        this(currentDay, explorationsLeft, weather, platinumChance, fullness, flags, 0, materials);
+    }
+
+    public GameSnapshot(int currentDay, int explorationsLeft, Weather weather, int platinumChance,
+                        int fullness, int flags, long deepSeaTracker, int[] materials) {
+        this(currentDay, explorationsLeft, weather, platinumChance, fullness, flags, deepSeaTracker, materials, new int[0]);
+    }
+
+    public GameSnapshot(int currentDay, int explorationsLeft, Weather weather, int platinumChance,
+                        int fullness, int flags, long deepSeaTracker, int[] materials, int[] craftedItems) {
+        this.currentDay = currentDay;
+        this.explorationsLeft = explorationsLeft;
+        this.weather = weather;
+        this.platinumChance = platinumChance;
+        this.fullness = fullness;
+        this.flags = flags;
+        this.deepSeaTracker = deepSeaTracker;
+        this.materials = materials.clone();
+        this.craftedItems = craftedItems.clone();
+    }
+
+    // Reads the whole game through GameState and the Inventory's public API
+    public static GameSnapshot capture(GameState gameState) {
+        Inventory inventory = gameState.getInventory();
+
+        int flags = gameState.getCompanions();
+        if (gameState.hasMapFragment()) flags |= MAP_FRAGMENT;
+
+        int fullness = 0;
+        long deepSea = 0;
+        int[] materials = new int[0];
+        int[] craftedItems = new int[0];
+        if (inventory != null) {
+            // Which items were found is only known to a DeepSeaTracker; a plain Inventory only counts them
+            DeepSeaTracker tracker = DeepSeaTracker.of(inventory);
+            if (tracker != null) deepSea = tracker.getBits();
+            if (inventory.hasFurnace()) flags |= FURNACE;
+            if (inventory.hasAlchemyTable()) flags |= ALCHEMY_TABLE;
+            fullness = inventory.getFullnessLevel();
+            materials = new int[MaterialRegistry.size()];
+            for (int id = 0; id < materials.length; id++) {
+                materials[id] = inventory.getMaterialCount(MaterialRegistry.nameOf(id));
+            }
+            // Only a JournaledInventory knows which crafted items it holds; a plain one only counts them
+            if (inventory instanceof JournaledInventory journaled) {
+                craftedItems = new int[CraftedItemRegistry.size()];
+                for (int kind = 0; kind < craftedItems.length; kind++) {
+                    craftedItems[kind] = journaled.getCraftedItemCount(kind);
+                }
+            }
+        }
+
+        return new GameSnapshot(gameState.getCurrentDay(), gameState.getExplorationsLeft(), gameState.getTodayWeather(),
+                gameState.getPlatinumChance(), fullness, flags, deepSea, materials, craftedItems);
+    }
+
+    // Puts a game back into this state. Inventory's API can't take down a structure, drop a
+    // given crafted item or raise fullness, so the game gets a fresh Inventory of the same kind
+    // and the snapshot is applied to that. Anything that kept the old Inventory must fetch
+    // gameState.getInventory() again.
+    // The inventory is filled before the game's own fields are restored: that turns on Kino's
+    // doubling, which Inventory applies to every material added, and it puts back the Map
+    // Fragment flag, which adding a Map Fragment may have set
+    public void restore(GameState gameState) {
+        Inventory old = gameState.getInventory();
+        if (old != null) {
+            gameState.setInventory(freshLike(old, gameState));
+            fill(gameState.getInventory());
+        }
+        gameState.restore(this);
+    }
+
+    // Puts this snapshot's materials, structures, crafted items, Deep Sea finds and fullness into
+    // an empty Inventory, with Kino's doubling off
+    private void fill(Inventory inventory) {
+        inventory.setDoubleEffect(false);
+
+        // Bring every known material to its saved count with one add or use per material
+        for (int id = 0; id < MaterialRegistry.size(); id++) {
+            String name = MaterialRegistry.nameOf(id);
+            int difference = getMaterialCount(id) - inventory.getMaterialCount(name);
+            if (difference > 0) {
+                inventory.addRawMaterial(name, difference);
+            } else if (difference < 0) {
+                inventory.useMaterial(name, -difference);
+            }
+        }
+
+        if (has(FURNACE) && !inventory.hasFurnace()) inventory.registerStructure("Furnace");
+        if (has(ALCHEMY_TABLE) && !inventory.hasAlchemyTable()) inventory.registerStructure("Alchemy Table");
+
+        for (int kind = 0; kind < craftedItems.length; kind++) {
+            String name = CraftedItemRegistry.nameOf(kind);
+            Recipe recipe = craftedItems[kind] > 0 ? RecipeBook.find(name) : null;
+            for (int i = 0; i < craftedItems[kind]; i++) {
+                if (recipe != null && recipe.output == Recipe.Output.ITEM) {
+                    recipe.addItemTo(inventory);
+                } else if (inventory instanceof JournaledInventory journaled) {
+                    journaled.addCraftedItem(new CraftedItem(name, ""), name); // No recipe: Inventory's own items
+                }
+            }
+        }
+
+        DeepSeaTracker tracker = DeepSeaTracker.of(inventory);
+        if (tracker != null) tracker.setBits(deepSeaTracker);
+
+        // Stop as soon as fullness stops dropping, whatever the Inventory's floor is
+        int before;
+        do {
+            before = inventory.getFullnessLevel();
+            if (before > fullness) inventory.decreaseFullness();
+        } while (before > fullness && inventory.getFullnessLevel() < before);
+    }
+
+    // An empty Inventory of the same class, for restore to fill in
+    private static Inventory freshLike(Inventory old, GameState gameState) {
+        if (old instanceof JournaledInventory) return new JournaledInventory(gameState);
+        if (old instanceof SharedInventory) return new SharedInventory(gameState);
+        return new Inventory(gameState);
+    }
+
+    // True if the given flag bit is set
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    // Saved count of a material (0 for ids registered after the snapshot was taken)
+    public int getMaterialCount(int id) {
+        return id < materials.length ? materials[id] : 0;
+    }
+
+    // Number of material slots stored
+    public int materialSlots() {
+        return materials.length;
+    }
+
+    // Saved count of a crafted item kind
+    public int getCraftedItemCount(int kind) {
+        return kind < craftedItems.length ? craftedItems[kind] : 0;
+    }
+
+    // Number of crafted item slots stored
+    public int craftedItemSlots() {
+        return craftedItems.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameSnapshot)) return false;
+        GameSnapshot other = (GameSnapshot) o;
+        if (currentDay != other.currentDay || explorationsLeft != other.explorationsLeft || weather != other.weather
+                || platinumChance != other.platinumChance || fullness != other.fullness || flags != other.flags
+                || deepSeaTracker != other.deepSeaTracker) {
+            return false;
+        }
+        for (int id = 0; id < Math.max(materials.length, other.materials.length); id++) {
+            if (getMaterialCount(id) != other.getMaterialCount(id)) return false;
+        }
+        for (int kind = 0; kind < Math.max(craftedItems.length, other.craftedItems.length); kind++) {
+            if (getCraftedItemCount(kind) != other.getCraftedItemCount(kind)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Materials and crafted items are left out so trailing zero slots never matter; equal snapshots still hash equally
+        return Objects.hash(currentDay, explorationsLeft, weather, platinumChance, fullness, flags, deepSeaTracker);
+    }
+}
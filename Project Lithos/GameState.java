@@ -1,15 +1,30 @@
+import java.io.IOException;
+import java.util.List;
+
 public class GameState { 
-    // Flags for companion revival states — only one can be active at a time
-    private boolean kinoRevived = false;
-    private boolean bemRevived = false;
-    private boolean akioRevived = false;
-    
-    // Flag to indicate crafting success is always guaranteed (granted by Bem)
-    private boolean alwaysSuccessfulCraft = false; 
+    // Companion revival states as GameSnapshot bits (KINO_REVIVED, BEM_REVIVED, AKIO_REVIVED,
+    // and ALWAYS_SUCCESSFUL_CRAFT granted by Bem) — only one companion can be active at a time,
+    // so each revive replaces the whole word
+    private int companions;
     
     // Reference to the player's inventory
     private Inventory inventory;
     
+    // Where the game reads input and writes output (console unless replaced)
+    private GameIO io = ConsoleIO.get();
+    
+    // Every roll in the game (loot, hazards, crafting) comes from here
+    private final GameRandom random = new GameRandom();
+    
+    // Weather rolls have their own stream, so asking for a forecast never shifts the other rolls
+    private final GameRandom weatherRandom = random.stream("weather");
+    
+    // Records every state change when set (crash recovery, bug reproduction); null otherwise
+    private Journal journal;
+    
+    // Bumped on every change to this state; GameTransaction commits check it
+    private long version;
+    
     // Chance multiplier for finding platinum resources
     private int platinumChance = 1; 
     
@@ -27,6 +42,9 @@ public class GameState {
     
     // Weather condition for the current day
     private Weather todayWeather = Weather.NORMAL; 
+    
+    // Rules for the coming days' weather, and any days already forecast
+    private final WeatherForecast weather = new WeatherForecast(IndependentWeather.STANDARD);
 
     // Constructor to initialize GameState with the player's inventory
     public GameState(Inventory inventory) { 
@@ -38,60 +56,113 @@ public class GameState {
         this.inventory = inventory;
     }
     
+    // Port used by every subsystem of this game for input, output and events
+    public GameIO getIO() { return io; }
+    
+    // Replaces the I/O port (e.g. with an InMemoryIO for scripted runs)
+    public void setIO(GameIO io) {
+        this.io = io;
+    }
+    
+    // Shared RNG handed to every subsystem; reseed it to replay a game
+    public GameRandom getRandom() { return random; }
+    
+    // Journal that GameState and its JournaledInventory report changes to (null if none)
+    public Journal getJournal() { return journal; }
+    
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    // Writes the changes recorded since the last flush; called once an action has finished
+    public void flushJournal() {
+        if (journal == null) return;
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            io.println("Could not write the journal: " + e.getMessage());
+        }
+    }
+    
+    // Changes made so far; equal versions mean nothing here changed in between
+    public long getVersion() { return version; }
+    
     // Getter to retrieve today's weather
     public Weather getTodayWeather() { return todayWeather; } 
     
+    // How tomorrow's weather is decided (standard odds unless replaced)
+    public WeatherModel getWeatherModel() { return weather.getModel(); }
+    
+    // Replaces the weather rules; days already forecast are forecast again under the new ones
+    public void setWeatherModel(WeatherModel model) {
+        weather.setModel(model);
+    }
+    
+    // Weather of the next days, starting tomorrow. Sleeping will bring exactly these
+    public List<Weather> forecast(int days) {
+        return weather.forecast(todayWeather, currentDay, days, weatherRandom);
+    }
+    
     // Advances the game to the next day and resets exploration limits
     public void sleep() { 
+        version++;
         currentDay++;
         explorationsLeft = MAX_EXPLORATIONS;
-        todayWeather = Weather.generate(); 
-        System.out.println("\n--- Day " + currentDay + " ---");
-        System.out.println("The weather is: " + todayWeather.description + ". " + todayWeather.flavorText);
-        System.out.println("You rested well. Exploration limit reset to " + MAX_EXPLORATIONS + ".");
+        todayWeather = weather.next(todayWeather, currentDay, weatherRandom); 
+        if (journal != null) journal.daySlept(todayWeather);
+        Metrics.daySlept();
+        Metrics.sleepEvent(currentDay, todayWeather);
+        io.println("\n--- Day " + currentDay + " ---");
+        io.println("The weather is: " + todayWeather.description + ". " + todayWeather.flavorText);
+        io.println("You rested well. Exploration limit reset to " + MAX_EXPLORATIONS + ".");
+        io.emit(new GameEvent(GameEvent.Type.DAY_STARTED, todayWeather.description, currentDay));
     }
     
     // Decrease exploration attempts left if any remain
     public void decrementExploration() {
         if (explorationsLeft > 0) {
             explorationsLeft--;
+            version++;
+            if (journal != null) journal.explorationUsed();
         }
     }
     
     // Resets exploration attempts back to the daily maximum
     public void resetExplorationLimit() {
         explorationsLeft = MAX_EXPLORATIONS;
-        System.out.println("You feel completely re-energized! Exploration limit reset to " + MAX_EXPLORATIONS + ".");
+        version++;
+        if (journal != null) journal.explorationsReset();
+        io.println("You feel completely re-energized! Exploration limit reset to " + MAX_EXPLORATIONS + ".");
     }
 
     // Revives Kino and enables double resource gathering effect
     public void reviveKino() { 
-        kinoRevived = true;
-        bemRevived = false;
-        akioRevived = false;
-        alwaysSuccessfulCraft = false; 
+        companions = GameSnapshot.KINO_REVIVED;
+        version++;
+        if (journal != null) journal.companionRevived(GameSnapshot.KINO_REVIVED);
         inventory.setDoubleEffect(true);
-        System.out.println("Kino revived! Your raw materials will double each exploration.");
+        io.println("Kino revived! Your raw materials will double each exploration.");
+        io.emit(new GameEvent(GameEvent.Type.COMPANION_REVIVED, "Kino"));
     }
 
     // Revives Bem and makes all crafting 100% successful
     public void reviveBem() { 
-        bemRevived = true;
-        kinoRevived = false;
-        akioRevived = false;
-        alwaysSuccessfulCraft = true; 
+        companions = GameSnapshot.BEM_REVIVED | GameSnapshot.ALWAYS_SUCCESSFUL_CRAFT;
+        version++;
+        if (journal != null) journal.companionRevived(GameSnapshot.BEM_REVIVED);
         inventory.setDoubleEffect(false);
-        System.out.println("Bem revived! She stabilizes your crafting. All crafts will now be 100% successful!");
+        io.println("Bem revived! She stabilizes your crafting. All crafts will now be 100% successful!");
+        io.emit(new GameEvent(GameEvent.Type.COMPANION_REVIVED, "Bem"));
     }
 
     // Revives Akio, clears inventory, and disables other companion effects
     public void reviveAkio() { 
-        akioRevived = true;
-        kinoRevived = false;
-        bemRevived = false;
-        alwaysSuccessfulCraft = false; 
+        companions = GameSnapshot.AKIO_REVIVED;
+        version++;
+        if (journal != null) journal.companionRevived(GameSnapshot.AKIO_REVIVED);
         inventory.setDoubleEffect(false);
         inventory.clearInventory();
+        io.emit(new GameEvent(GameEvent.Type.COMPANION_REVIVED, "Akio"));
     }
     
     // Getter for the current day number
@@ -103,6 +174,8 @@ public class GameState {
     // Setter for platinum chance multiplier
     public void setPlatinumChance(int multiplier) { 
         this.platinumChance = multiplier; 
+        version++;
+        if (journal != null) journal.platinumChanceSet(multiplier);
     }
     
     // Getter for platinum chance multiplier
@@ -111,6 +184,8 @@ public class GameState {
     // Setter for whether the player has the map fragment
     public void setHasMapFragment(boolean value) {
         this.hasMapFragment = value;
+        version++;
+        if (journal != null) journal.flagSet(GameSnapshot.MAP_FRAGMENT, value);
     }
     
     // Returns true if the player has the map fragment
@@ -120,19 +195,38 @@ public class GameState {
     
     // Returns true if crafting is always successful
     public boolean isCraftAlwaysSuccessful() {
-        return alwaysSuccessfulCraft;
+        return (companions & GameSnapshot.ALWAYS_SUCCESSFUL_CRAFT) != 0;
     }
 
     // Getters for companion revival states
-    public boolean isKinoRevived() { return kinoRevived; }
-    public boolean isBemRevived() { return bemRevived; }
-    public boolean isAkioRevived() { return akioRevived; }
+    public boolean isKinoRevived() { return (companions & GameSnapshot.KINO_REVIVED) != 0; }
+    public boolean isBemRevived() { return (companions & GameSnapshot.BEM_REVIVED) != 0; }
+    public boolean isAkioRevived() { return (companions & GameSnapshot.AKIO_REVIVED) != 0; }
+    
+    // All companion bits at once (GameSnapshot.COMPANIONS)
+    public int getCompanions() { return companions; }
     
     // Getter for the player's inventory
     public Inventory getInventory() { return inventory; }
     
+    // Puts every field back to a saved snapshot (used by GameSnapshot.restore, no messages printed)
+    void restore(GameSnapshot snapshot) {
+        version++;
+        currentDay = snapshot.currentDay;
+        explorationsLeft = snapshot.explorationsLeft;
+        todayWeather = snapshot.weather;
+        weather.clear(); // The forecast isn't saved; the days after a load are rolled again
+        platinumChance = snapshot.platinumChance;
+        hasMapFragment = snapshot.has(GameSnapshot.MAP_FRAGMENT);
+        companions = snapshot.flags & GameSnapshot.COMPANIONS;
+        if (inventory != null) {
+            inventory.setDoubleEffect(isKinoRevived()); // Kino's doubling lives on the inventory
+        }
+    }
+    
     // Returns true only if all companions are revived
     public boolean allCompanionsRevived() { 
-        return kinoRevived && bemRevived && akioRevived;
+        int all = GameSnapshot.KINO_REVIVED | GameSnapshot.BEM_REVIVED | GameSnapshot.AKIO_REVIVED;
+        return (companions & all) == all;
     }
 }
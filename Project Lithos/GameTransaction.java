@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Staged changes to a console game (GameState and its Inventory), applied together or not at
+// all - the played game's counterpart of WorldTransaction.
+//
+// Changes are collected first and the game is only touched by commit(), so a menu that
+// fails halfway through (an exception, a missing material) leaves the game as it was.
+// commit() refuses if the GameState changed since begin() (its version moved) or if a
+// material to be taken is no longer there (another player of a SharedInventory spent it);
+// the caller can then stage again, which run() does automatically. Like WorldTransaction,
+// begin() and commit() lock the GameState, so two commits can't both pass the version check;
+// threads sharing a GameState must make all their changes through transactions.
+//
+// On commit, materials are taken first, in one atomic step on a SharedInventory. If a later
+// step throws, the material changes are undone. Deep Sea progress is swapped in right after
+// (refused like a stale version if another scan moved it) and put back the same way.
+// Crafted items, structures, fullness, explorations and companions can't be taken back,
+// so they are applied last.
+public final class GameTransaction {
+    // run() gives up after this many conflicting attempts in a row
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final GameState gameState;
+    private final Inventory inventory;
+    private long version;
+
+    // Materials to take and to add, by MaterialRegistry id
+    private int[] takeIds = new int[4];
+    private int[] takeAmounts = new int[4];
+    private int takes;
+    private int[] addIds = new int[4];
+    private int[] addAmounts = new int[4];
+    private int adds;
+
+    private final List<Recipe> craftedItems = new ArrayList<>(); // One entry per item, by recipe
+    private final List<String> structures = new ArrayList<>();
+    private int craftedRemovals;
+    private int explorationsUsed;
+    private int fullnessDecreases;
+    private boolean akioRevived;
+
+    // Deep Sea tracker bits as read when the first scan was staged, and after the staged scans
+    private boolean deepSeaStaged;
+    private long deepSeaBefore;
+    private long deepSeaAfter;
+
+    public GameTransaction(GameState gameState) {
+        this.gameState = gameState;
+        this.inventory = gameState.getInventory();
+        begin();
+    }
+
+    // Stages one change set with retries: stage returns false to give up (nothing is applied),
+    // true to commit. A refused commit stages again from the new state.
+    public static boolean run(GameState gameState, Predicate<GameTransaction> stage) {
+        GameTransaction transaction = new GameTransaction(gameState);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (!stage.test(transaction)) {
+                return false;
+            }
+            if (transaction.commit()) {
+                return true;
+            }
+            transaction.begin();
+        }
+        throw new ConcurrentModificationException("Game kept changing; gave up after " + MAX_ATTEMPTS + " attempts.");
+    }
+
+    // Forgets anything staged and starts again from the game's current version
+    public GameTransaction begin() {
+        synchronized (gameState) {
+            version = gameState.getVersion();
+        }
+        takes = 0;
+        adds = 0;
+        craftedItems.clear();
+        structures.clear();
+        craftedRemovals = 0;
+        explorationsUsed = 0;
+        fullnessDecreases = 0;
+        akioRevived = false;
+        deepSeaStaged = false;
+        return this;
+    }
+
+    // --- Staged reads and changes ---
+
+    // Amount held once the staged changes are applied
+    public int getMaterialCount(String name) {
+        int id = MaterialRegistry.idOf(name);
+        return id < 0 ? inventory.getMaterialCount(name) : getMaterialCount(id);
+    }
+
+    private int getMaterialCount(int id) {
+        long count = inventory.getMaterialCount(MaterialRegistry.nameOf(id));
+        for (int i = 0; i < takes; i++) {
+            if (takeIds[i] == id) count -= takeAmounts[i];
+        }
+        for (int i = 0; i < adds; i++) {
+            if (addIds[i] == id) count += addAmounts[i];
+        }
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, count));
+    }
+
+    // Stages taking an amount if enough is held (counting earlier staged changes); false otherwise
+    public boolean useMaterial(String name, int amount) {
+        int id = MaterialRegistry.idOf(name);
+        if (id < 0 || getMaterialCount(id) < amount) {
+            return false;
+        }
+        stageTake(id, amount);
+        return true;
+    }
+
+    public void addRawMaterial(String name, int amount) {
+        if (adds == addIds.length) {
+            addIds = Arrays.copyOf(addIds, adds * 2);
+            addAmounts = Arrays.copyOf(addAmounts, adds * 2);
+        }
+        addIds[adds] = MaterialRegistry.intern(name);
+        addAmounts[adds++] = amount;
+    }
+
+    // Stages a recipe's inputs for 'units' crafts (and its catalyst if wanted); false, with
+    // nothing staged, if any of them are short
+    public boolean consumeInputs(Recipe recipe, int units, boolean withCatalyst) {
+        if (!recipe.hasInputs(this::getMaterialCount, units, withCatalyst)) {
+            return false;
+        }
+        for (int i = 0; i < recipe.inputCount(); i++) {
+            stageTake(recipe.inputId(i), recipe.inputAmount(i) * units);
+        }
+        if (withCatalyst && recipe.hasCatalyst()) {
+            stageTake(recipe.getCatalystId(), units);
+        }
+        return true;
+    }
+
+    // Stages the output of 'successes' crafts, like Recipe.deliver; returns the units produced
+    public int deliver(Recipe recipe, int successes, boolean withCatalyst) {
+        int produced = successes * (withCatalyst && recipe.hasCatalyst() ? recipe.getCatalystMultiplier() : 1);
+        if (produced <= 0) {
+            return produced;
+        }
+        switch (recipe.output) {
+            case STRUCTURE -> structures.add(recipe.name);
+            case ITEM -> {
+                for (int i = 0; i < produced; i++) {
+                    craftedItems.add(recipe);
+                }
+            }
+            case MATERIAL -> addRawMaterial(recipe.name, produced);
+        }
+        return produced;
+    }
+
+    public void removeRandomCraftedItem() {
+        craftedRemovals++;
+    }
+
+    public void decrementExploration() {
+        explorationsUsed++;
+    }
+
+    public void decreaseFullness() {
+        fullnessDecreases++;
+    }
+
+    // Stages a Deep Sea scan's finds (DeepSeaTracker bits); true if they complete a set, which
+    // pays out Painite and empties the tracker. Needs an inventory with a DeepSeaTracker
+    public boolean addDeepSeaFinds(long mask) {
+        DeepSeaTracker tracker = DeepSeaTracker.of(inventory);
+        if (tracker == null) {
+            throw new IllegalStateException("This inventory does not keep a DeepSeaTracker.");
+        }
+        if (!deepSeaStaged) {
+            deepSeaBefore = tracker.getBits();
+            deepSeaAfter = deepSeaBefore;
+            deepSeaStaged = true;
+        }
+        long bits = deepSeaAfter | mask;
+        boolean payout = Long.bitCount(bits) >= DropTable.PAINITE_UNIQUE_ITEMS;
+        deepSeaAfter = payout ? 0 : bits;
+        return payout;
+    }
+
+    // Akio's return empties the inventory, so it is applied after everything else
+    public void reviveAkio() {
+        akioRevived = true;
+    }
+
+    // --- Commit ---
+
+    // Applies everything staged; false (nothing applied) if the game changed in a way that conflicts
+    public boolean commit() {
+        synchronized (gameState) {
+            return apply();
+        }
+    }
+
+    // commit() with the GameState locked
+    private boolean apply() {
+        if (gameState.getVersion() != version || !takeMaterials()) {
+            return false;
+        }
+        DeepSeaTracker tracker = deepSeaStaged ? DeepSeaTracker.of(inventory) : null;
+        if (tracker != null && !tracker.compareAndSet(deepSeaBefore, deepSeaAfter)) {
+            undoMaterials(0);
+            return false;
+        }
+        int added = 0;
+        try {
+            for (; added < adds; added++) {
+                inventory.addRawMaterial(MaterialRegistry.nameOf(addIds[added]), addAmounts[added]);
+            }
+        } catch (RuntimeException | Error e) {
+            undoMaterials(added);
+            if (tracker != null) tracker.compareAndSet(deepSeaAfter, deepSeaBefore);
+            throw e;
+        }
+        for (String structure : structures) inventory.registerStructure(structure);
+        for (Recipe recipe : craftedItems) recipe.addItemTo(inventory);
+        for (int i = 0; i < craftedRemovals; i++) inventory.removeRandomCraftedItem();
+        for (int i = 0; i < fullnessDecreases; i++) inventory.decreaseFullness();
+        for (int i = 0; i < explorationsUsed; i++) gameState.decrementExploration();
+        if (akioRevived) gameState.reviveAkio();
+        begin();
+        return true;
+    }
+
+    // All staged takes or none: one atomic reserve on a SharedInventory, check-then-take otherwise
+    private boolean takeMaterials() {
+        if (takes == 0) {
+            return true;
+        }
+        if (inventory instanceof SharedInventory shared) {
+            return shared.tryConsume(Arrays.copyOf(takeIds, takes), Arrays.copyOf(takeAmounts, takes));
+        }
+        for (int i = 0; i < takes; i++) {
+            if (inventory.getMaterialCount(MaterialRegistry.nameOf(takeIds[i])) < takeAmounts[i]) {
+                return false;
+            }
+        }
+        int taken = 0;
+        try {
+            for (; taken < takes; taken++) {
+                inventory.useMaterial(MaterialRegistry.nameOf(takeIds[taken]), takeAmounts[taken]);
+            }
+        } catch (RuntimeException | Error e) {
+            for (int i = taken - 1; i >= 0; i--) {
+                inventory.addRawMaterial(MaterialRegistry.nameOf(takeIds[i]), takeAmounts[i]);
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    // Gives back every taken material and takes back the first 'added' additions
+    private void undoMaterials(int added) {
+        for (int i = added - 1; i >= 0; i--) {
+            inventory.useMaterial(MaterialRegistry.nameOf(addIds[i]), addAmounts[i]);
+        }
+        for (int i = takes - 1; i >= 0; i--) {
+            inventory.addRawMaterial(MaterialRegistry.nameOf(takeIds[i]), takeAmounts[i]);
+        }
+    }
+
+    // Takes of the same material are merged, so each material is taken in one update
+    private void stageTake(int id, int amount) {
+        for (int i = 0; i < takes; i++) {
+            if (takeIds[i] == id) {
+                takeAmounts[i] += amount;
+                return;
+            }
+        }
+        if (takes == takeIds.length) {
+            takeIds = Arrays.copyOf(takeIds, takes * 2);
+            takeAmounts = Arrays.copyOf(takeAmounts, takes * 2);
+        }
+        takeIds[takes] = id;
+        takeAmounts[takes++] = amount;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Scripted adapter: commands are queued up front, output and events are collected in memory.
+// No terminal is involved, so long replays run as fast as the game logic itself.
+public final class InMemoryIO implements GameIO {
+    private final Deque<String> commands = new ArrayDeque<>();
+    private final StringBuilder output = new StringBuilder();
+    private final List<GameEvent> events = new ArrayList<>();
+
+    public InMemoryIO(String... commands) {
+        this.commands.addAll(Arrays.asList(commands));
+    }
+
+    public InMemoryIO(List<String> commands) {
+        this.commands.addAll(commands);
+    }
+
+    // Queues more commands
+    public void enqueue(String command) {
+        commands.add(command);
+    }
+
+    // True once every queued command has been read
+    public boolean isExhausted() {
+        return commands.isEmpty();
+    }
+
+    @Override
+    public String readLine() {
+        String command = commands.poll();
+        if (command == null) {
+            throw new NoSuchElementException("No more scripted input.");
+        }
+        return command;
+    }
+
+    @Override
+    public void print(String text) {
+        output.append(text);
+    }
+
+    @Override
+    public void println(String text) {
+        output.append(text).append('\n');
+    }
+
+    @Override
+    public void emit(GameEvent event) {
+        events.add(event);
+    }
+
+    // Everything printed so far
+    public String getOutput() {
+        return output.toString();
+    }
+
+    // Every event emitted so far, in order
+    public List<GameEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    // Forgets collected output and events (queued commands stay)
+    public void clear() {
+        output.setLength(0);
+        events.clear();
+    }
+}
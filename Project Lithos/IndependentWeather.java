@@ -0,0 +1,51 @@
+import java.util.random.RandomGenerator;
+
+// Weather rolled fresh every day from fixed weights, whatever the day before was.
+// STANDARD holds the game's own odds (10% storm, 15% clear sun, 25% bright sun, 50% normal).
+public final class IndependentWeather implements WeatherModel {
+    // Order the roll is split in; STANDARD depends on it to give the same weather for the same roll
+    private static final Weather[] ROLL_ORDER = { Weather.STORM, Weather.CLEAR_SUN, Weather.BRIGHT_SUN, Weather.NORMAL };
+
+    public static final IndependentWeather STANDARD = new IndependentWeather(10, 15, 25, 50);
+
+    private final int[] thresholds = new int[ROLL_ORDER.length]; // Cumulative weights in roll order
+    private final double[] chances = new double[ROLL_ORDER.length]; // By ordinal
+
+    // Whole-number weights, any total
+    public IndependentWeather(int storm, int clearSun, int brightSun, int normal) {
+        int[] weights = { storm, clearSun, brightSun, normal };
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weather weights cannot be negative: " + weights[i]);
+            }
+            total += weights[i];
+            thresholds[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weather weights must not all be zero.");
+        }
+        for (int i = 0; i < weights.length; i++) {
+            chances[ROLL_ORDER[i].ordinal()] = (double) weights[i] / total;
+        }
+    }
+
+    @Override
+    public Weather next(Weather previous, int day, RandomGenerator rng) {
+        return roll(rng);
+    }
+
+    // One roll, one nextInt
+    public Weather roll(RandomGenerator rng) {
+        int roll = rng.nextInt(thresholds[thresholds.length - 1]);
+        for (int i = 0; i < thresholds.length - 1; i++) {
+            if (roll < thresholds[i]) return ROLL_ORDER[i];
+        }
+        return ROLL_ORDER[ROLL_ORDER.length - 1];
+    }
+
+    @Override
+    public double[] chances(Weather previous, int day) {
+        return chances.clone();
+    }
+}
@@ -0,0 +1,105 @@
+// View model for the Inventory & Tools screen. The inventory reports each change here as it
+// happens (JournaledInventory does), and the screen text is only rebuilt after a change, so
+// redrawing an unchanged inventory hands out the same String again. Each part of the screen
+// is one string, written to the player in one go instead of line by line.
+// The lists themselves are the inventory's own (showInventory, processToolsAndFood), buffered
+// with ThreadOutput, so the screen reads exactly as the inventory prints it.
+public final class InventoryView {
+    private final Inventory inventory;
+    private final MaterialCounts materials = new MaterialCounts(); // Mirror of the held counts
+    private int craftedCount;
+    private int fullness;
+    private boolean furnace;
+    private boolean alchemyTable;
+
+    private long version;                 // Bumped on every change
+    private long renderedVersion = -1;    // Version the cached strings were built from
+    private String screen;                // Header, resource list, tools and food
+    private String prompt;                // Crafted item instructions
+
+    public InventoryView(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    // Reloads everything from the inventory (when the view is first attached)
+    public void sync() {
+        for (int id = 0; id < MaterialRegistry.size(); id++) {
+            materialChanged(id, inventory.getMaterialCount(MaterialRegistry.nameOf(id)));
+        }
+        craftedItemsChanged(inventory.getCraftedItemCount());
+        fullnessChanged(inventory.getFullnessLevel());
+        structuresChanged(inventory.hasFurnace(), inventory.hasAlchemyTable());
+    }
+
+    // New held count of a material
+    public void materialChanged(String name, int count) {
+        materialChanged(MaterialRegistry.intern(name), count);
+    }
+
+    public void materialChanged(int id, int count) {
+        int held = materials.getMaterialCount(id);
+        if (held != count) {
+            materials.addRawMaterial(id, count - held);
+            version++;
+        }
+    }
+
+    // New number of crafted items
+    public void craftedItemsChanged(int count) {
+        if (craftedCount != count) {
+            craftedCount = count;
+            version++;
+        }
+    }
+
+    public void fullnessChanged(int level) {
+        if (fullness != level) {
+            fullness = level;
+            version++;
+        }
+    }
+
+    public void structuresChanged(boolean furnace, boolean alchemyTable) {
+        if (this.furnace != furnace || this.alchemyTable != alchemyTable) {
+            this.furnace = furnace;
+            this.alchemyTable = alchemyTable;
+            version++;
+        }
+    }
+
+    // A change the counts don't show (a tool wearing down, say)
+    public void changed() {
+        version++;
+    }
+
+    // Changes seen so far; equal versions mean an identical screen
+    public long getVersion() {
+        return version;
+    }
+
+    // Screen header, resource list, and crafted tools and food
+    public String screen() {
+        render();
+        return screen;
+    }
+
+    // Instructions shown under the tools and food
+    public String prompt() {
+        render();
+        return prompt;
+    }
+
+    // Rebuilds the cached strings if anything changed since they were built
+    private void render() {
+        if (renderedVersion == version) {
+            return;
+        }
+        screen = "\n--- INVENTORY & TOOLS ---\n"
+                + ThreadOutput.capture(inventory::showInventory)
+                + ThreadOutput.capture(inventory::processToolsAndFood);
+        prompt = craftedCount == 0
+                ? "\nNo crafted items to use. Type 'back' to return.\n"
+                : "\nSelect crafted item to use (1-" + craftedCount + "), or type 'back' to return:\n";
+        renderedVersion = version;
+    }
+}
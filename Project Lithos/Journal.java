@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Append-only binary log of every change to a game, for crash recovery and for turning
+// a bug report into an exact reproduction. JournalReplayer rebuilds the game from it.
+//
+// Layout (big-endian): int magic 'LJRN', short version, then records of
+//   byte type, followed by the type's payload (see the record types below).
+// The first record is always a SNAPSHOT; replay starts from the last SNAPSHOT in the file.
+//
+// Records are collected in a buffer and written with one FileChannel write per flush()
+// (or whenever the buffer fills up), so recording an event never touches the disk itself.
+// The game flushes once each action's changes are all recorded (GameState.flushJournal).
+public final class Journal implements AutoCloseable {
+    static final int MAGIC = 0x4C4A524E; // "LJRN"
+    static final short VERSION = 2;
+
+    // Record types and their payloads
+    static final byte SNAPSHOT = 1;            // int length, SaveFile-encoded GameSnapshot
+    static final byte DAY_SLEPT = 2;           // byte weather ordinal (the rolled weather, so replay needs no RNG)
+    static final byte EXPLORATION_USED = 3;
+    static final byte EXPLORATIONS_RESET = 4;
+    static final byte COMPANION_REVIVED = 5;   // byte GameSnapshot companion bit
+    static final byte PLATINUM_CHANCE = 6;     // int chance
+    static final byte FLAG_SET = 7;            // byte GameSnapshot bit, byte 1 = set / 0 = cleared
+    static final byte MATERIAL_NAME = 8;       // short journal index, byte length, UTF-8 name
+    static final byte MATERIAL_ADDED = 9;      // short journal index, int amount
+    static final byte MATERIAL_USED = 10;      // short journal index, int amount
+    static final byte CRAFTED_ITEM_ADDED = 11;  // short crafted journal index (version 2 on; no payload in version 1)
+    static final byte CRAFTED_ITEM_USED = 12;   // short crafted journal index (likewise)
+    static final byte CRAFTED_ITEM_REMOVED = 13; // short crafted journal index (likewise)
+    static final byte INVENTORY_CLEARED = 14;
+    static final byte FULLNESS_DECREASED = 15;
+    static final byte CRAFTED_ITEM_NAME = 16;  // short crafted journal index, byte length, UTF-8 name
+    static final byte DEEP_SEA_TRACKER = 17;   // long DeepSeaTracker bits after the change
+    static final byte FULLNESS_SET = 18;       // int fullness level after the change (eating raises it)
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_SMALL_RECORD = 1 + 2 + 1 + 255; // Largest record other than a snapshot
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    // Materials and crafted items are written by a small per-file index; the name goes out once,
+    // the first time it's used
+    private final Map<String, Integer> materialIndex = new HashMap<>();
+    private final Map<String, Integer> craftedIndex = new HashMap<>();
+
+    private Journal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // Starts a new journal at the path (replacing any old one) from the game's current state
+    public static Journal create(Path path, GameSnapshot start) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Journal journal = new Journal(channel);
+        journal.buffer.putInt(MAGIC);
+        journal.buffer.putShort(VERSION);
+        journal.checkpoint(start);
+        journal.sync();
+        return journal;
+    }
+
+    // Full state record; replay skips everything before the last one
+    public void checkpoint(GameSnapshot snapshot) {
+        int size = SaveFile.encodedSize(snapshot);
+        reserve(1 + 4 + size);
+        buffer.put(SNAPSHOT);
+        buffer.putInt(size);
+        SaveFile.encode(snapshot, buffer);
+    }
+
+    // --- GameState changes ---
+
+    public void daySlept(Weather weather) {
+        reserve(2);
+        buffer.put(DAY_SLEPT);
+        buffer.put((byte) weather.ordinal());
+    }
+
+    public void explorationUsed() {
+        record(EXPLORATION_USED);
+    }
+
+    public void explorationsReset() {
+        record(EXPLORATIONS_RESET);
+    }
+
+    // companion: GameSnapshot.KINO_REVIVED, BEM_REVIVED or AKIO_REVIVED
+    public void companionRevived(int companion) {
+        reserve(2);
+        buffer.put(COMPANION_REVIVED);
+        buffer.put((byte) companion);
+    }
+
+    public void platinumChanceSet(int chance) {
+        reserve(5);
+        buffer.put(PLATINUM_CHANCE);
+        buffer.putInt(chance);
+    }
+
+    // flag: a single GameSnapshot bit (map fragment, structures)
+    public void flagSet(int flag, boolean on) {
+        reserve(3);
+        buffer.put(FLAG_SET);
+        buffer.put((byte) flag);
+        buffer.put((byte) (on ? 1 : 0));
+    }
+
+    // --- Inventory changes ---
+
+    public void materialAdded(String name, int amount) {
+        material(MATERIAL_ADDED, name, amount);
+    }
+
+    public void materialUsed(String name, int amount) {
+        material(MATERIAL_USED, name, amount);
+    }
+
+    // name: the crafted item's kind ("Spear", "Revival Potion", ...)
+    public void craftedItemAdded(String name) {
+        craftedItem(CRAFTED_ITEM_ADDED, name);
+    }
+
+    public void craftedItemUsed(String name) {
+        craftedItem(CRAFTED_ITEM_USED, name);
+    }
+
+    public void craftedItemRemoved(String name) {
+        craftedItem(CRAFTED_ITEM_REMOVED, name);
+    }
+
+    // The Deep Sea finds so far, after a scan, a payout or a reset
+    public void deepSeaTrackerSet(long bits) {
+        reserve(9);
+        buffer.put(DEEP_SEA_TRACKER);
+        buffer.putLong(bits);
+    }
+
+    public void inventoryCleared() {
+        record(INVENTORY_CLEARED);
+    }
+
+    public void fullnessDecreased() {
+        record(FULLNESS_DECREASED);
+    }
+
+    public void fullnessSet(int level) {
+        reserve(5);
+        buffer.put(FULLNESS_SET);
+        buffer.putInt(level);
+    }
+
+    // --- Output ---
+
+    // Writes every buffered record to the file in one go
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // flush() and make sure the records reached the disk
+    public void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void record(byte type) {
+        reserve(1);
+        buffer.put(type);
+    }
+
+    private void material(byte type, String name, int amount) {
+        int index = index(materialIndex, MATERIAL_NAME, name);
+        reserve(7);
+        buffer.put(type);
+        buffer.putShort((short) index);
+        buffer.putInt(amount);
+    }
+
+    private void craftedItem(byte type, String name) {
+        int index = index(craftedIndex, CRAFTED_ITEM_NAME, name);
+        reserve(3);
+        buffer.put(type);
+        buffer.putShort((short) index);
+    }
+
+    // Journal index of a name, writing its name record (of nameType) the first time
+    private int index(Map<String, Integer> indexes, byte nameType, String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            index = indexes.size();
+            indexes.put(name, index);
+            reserve(MAX_SMALL_RECORD);
+            buffer.put(nameType);
+            buffer.putShort(index.shortValue());
+            buffer.put((byte) bytes.length);
+            buffer.put(bytes);
+        }
+        return index;
+    }
+
+    // Makes room for a record, writing out the buffer first if it is too full
+    private void reserve(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the journal.", e);
+        }
+        if (buffer.remaining() < bytes) {
+            throw new IllegalStateException("Journal record of " + bytes + " bytes does not fit the buffer.");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Rebuilds a game from a Journal: the last snapshot in the file, then every record after it,
+// applied to a headless WorldState. No console, no Inventory and no RNG rolls are involved
+// (the journal stores outcomes, e.g. the weather each night), so the same file always
+// replays to the same state.
+public final class JournalReplayer {
+    // Version 1 journals crafted items without their kind, so replay counts those under one name
+    private static final int CRAFTED_ITEM = CraftedItemRegistry.intern("Crafted Item");
+
+    private JournalReplayer() {}
+
+    // Memory-maps the journal and replays it
+    public static WorldState replay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return replay(mapped);
+        }
+    }
+
+    // Replays a whole journal held in a buffer. A record cut off at the end (a crash mid-write)
+    // is ignored, so recovery gets everything up to the last complete record.
+    public static WorldState replay(ByteBuffer in) throws IOException {
+        short version;
+        try {
+            if (in.getInt() != Journal.MAGIC) {
+                throw new IOException("Not a Project Lithos journal.");
+            }
+            version = in.getShort();
+            if (version < 1 || version > Journal.VERSION) {
+                throw new IOException("Unsupported journal version " + version + " (expected 1 to " + Journal.VERSION + ").");
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt journal: file ends early.", e);
+        }
+
+        // Only the last snapshot matters, so find it first and decode nothing before it
+        List<String> names = new ArrayList<>();        // Journal material index -> name
+        List<String> craftedNames = new ArrayList<>(); // Journal crafted item index -> name
+        int lastSnapshot = -1;
+        int end = in.position();
+        try {
+            while (in.hasRemaining()) {
+                int start = in.position();
+                byte type = in.get();
+                skip(in, type, version, names, craftedNames);
+                if (type == Journal.SNAPSHOT) {
+                    lastSnapshot = start;
+                }
+                end = in.position();
+            }
+        } catch (BufferUnderflowException e) {
+            // Torn final record: stop at the last complete one
+        }
+        if (lastSnapshot < 0) {
+            throw new IOException("Corrupt journal: no snapshot to start from.");
+        }
+
+        int[] ids = new int[names.size()]; // Journal material index -> registry id
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = MaterialRegistry.intern(names.get(i));
+        }
+        int[] kinds = new int[craftedNames.size()]; // Journal crafted item index -> registry id
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = CraftedItemRegistry.intern(craftedNames.get(i));
+        }
+
+        in.position(lastSnapshot + 1);
+        int size = in.getInt();
+        ByteBuffer snapshot = in.slice();
+        snapshot.limit(size);
+        WorldState state = new WorldState(SaveFile.decode(snapshot));
+        in.position(lastSnapshot + 1 + 4 + size);
+
+        SplittableRandom unused = new SplittableRandom(0); // Version 1 items are all one kind, so any pick is the same
+        while (in.position() < end) {
+            byte type = in.get();
+            switch (type) {
+                case Journal.DAY_SLEPT -> state.sleep(weather(in.get()));
+                case Journal.EXPLORATION_USED -> state.decrementExploration();
+                case Journal.EXPLORATIONS_RESET -> state.resetExplorationLimit();
+                case Journal.COMPANION_REVIVED -> revive(state, in.get());
+                case Journal.PLATINUM_CHANCE -> state.setPlatinumChance(in.getInt());
+                case Journal.FLAG_SET -> state.setFlag(in.get(), in.get() != 0);
+                case Journal.MATERIAL_NAME, Journal.CRAFTED_ITEM_NAME -> skip(in, type, version, null, null); // Read in the first pass
+                case Journal.MATERIAL_ADDED -> state.addRawMaterial(id(ids, in.getShort()), in.getInt());
+                case Journal.MATERIAL_USED -> state.useMaterial(id(ids, in.getShort()), in.getInt());
+                case Journal.CRAFTED_ITEM_ADDED ->
+                        state.addCraftedItem(version >= 2 ? id(kinds, in.getShort()) : CRAFTED_ITEM, 1);
+                case Journal.CRAFTED_ITEM_USED, Journal.CRAFTED_ITEM_REMOVED -> {
+                    if (version >= 2) state.useCraftedItem(id(kinds, in.getShort()));
+                    else state.removeRandomCraftedItem(unused);
+                }
+                case Journal.DEEP_SEA_TRACKER -> state.setDeepSeaTracker(in.getLong());
+                case Journal.INVENTORY_CLEARED -> state.clearInventory();
+                case Journal.FULLNESS_DECREASED -> state.decreaseFullness();
+                case Journal.FULLNESS_SET -> state.setFullness(in.getInt());
+                default -> throw new IOException("Corrupt journal: unknown record type " + type + ".");
+            }
+        }
+        return state;
+    }
+
+    // Moves past one record's payload; MATERIAL_NAME and CRAFTED_ITEM_NAME records are collected
+    // into names and craftedNames when given
+    private static void skip(ByteBuffer in, byte type, short version, List<String> names, List<String> craftedNames)
+            throws IOException {
+        switch (type) {
+            case Journal.SNAPSHOT -> {
+                int size = in.getInt();
+                if (size < 0 || size > in.remaining()) throw new BufferUnderflowException();
+                in.position(in.position() + size);
+            }
+            case Journal.DAY_SLEPT, Journal.COMPANION_REVIVED -> in.get();
+            case Journal.FLAG_SET -> in.getShort();
+            case Journal.PLATINUM_CHANCE, Journal.FULLNESS_SET -> in.getInt();
+            case Journal.MATERIAL_NAME -> name(in, names);
+            case Journal.CRAFTED_ITEM_NAME -> name(in, craftedNames);
+            case Journal.MATERIAL_ADDED, Journal.MATERIAL_USED -> {
+                in.getShort();
+                in.getInt();
+            }
+            case Journal.CRAFTED_ITEM_ADDED, Journal.CRAFTED_ITEM_USED, Journal.CRAFTED_ITEM_REMOVED -> {
+                if (version >= 2) in.getShort();
+            }
+            case Journal.DEEP_SEA_TRACKER -> in.getLong();
+            case Journal.EXPLORATION_USED, Journal.EXPLORATIONS_RESET, Journal.INVENTORY_CLEARED,
+                 Journal.FULLNESS_DECREASED -> { }
+            default -> throw new IOException("Corrupt journal: unknown record type " + type + ".");
+        }
+    }
+
+    // A name record's payload, added to names (when given) at its index
+    private static void name(ByteBuffer in, List<String> names) throws IOException {
+        int index = in.getShort();
+        byte[] name = new byte[in.get() & 0xFF];
+        in.get(name);
+        if (names != null) {
+            if (index != names.size()) throw new IOException("Corrupt journal: name index out of order.");
+            names.add(new String(name, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void revive(WorldState state, int companion) throws IOException {
+        switch (companion) {
+            // The potion was journaled as a crafted item used, so only the effect is replayed
+            case GameSnapshot.KINO_REVIVED, GameSnapshot.BEM_REVIVED, GameSnapshot.AKIO_REVIVED -> state.companionReturned(companion);
+            default -> throw new IOException("Corrupt journal: unknown companion " + companion + ".");
+        }
+    }
+
+    private static Weather weather(int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= Weather.values().length) {
+            throw new IOException("Corrupt journal: unknown weather " + ordinal + ".");
+        }
+        return Weather.values()[ordinal];
+    }
+
+    // Registry id for a journal index (of a material or a crafted item)
+    private static int id(int[] ids, int index) throws IOException {
+        if (index < 0 || index >= ids.length) {
+            throw new IOException("Corrupt journal: unknown index " + index + ".");
+        }
+        return ids[index];
+    }
+}
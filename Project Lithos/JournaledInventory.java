@@ -0,0 +1,284 @@
+import java.util.Arrays;
+
+// Inventory that reports every change to the game's Journal, when one is attached
+// (GameState.setJournal), to its InventoryView, which the inventory screen is drawn from,
+// and to its CraftableIndex, which the Create menu reads.
+// Unique Deep Sea finds are kept in a DeepSeaTracker (one bitmask) instead of a set of names.
+// Crafted items are held here, in a CraftedItemStore by kind (the recipe's name, which
+// Recipe.addItemTo passes in), not in Inventory's list: Inventory can't say which item it
+// holds or remove a given one. Inventory's list stays empty; an item is handed to it only
+// while it is being used, so Inventory's rules for using it (eating, potions, tools) still
+// apply. The tools and food list on the inventory screen is drawn from the store.
+// With no journal it behaves exactly like Inventory.
+// An Inventory method may call another of the same kind internally (e.g. useMaterial(name)
+// calling useMaterial(name, 1)), so each kind only records at its outermost call.
+public class JournaledInventory extends Inventory {
+    // Kind of items added without a recipe (Inventory's own addCraftedItem callers)
+    static final String BARE_ITEM = "Crafted Item";
+
+    private int materialCalls;   // Material changes in progress
+    private int craftedCalls;    // Inventory's own crafted item code running (it only sees its list)
+    // Made on first use: Inventory's constructor may already call the overrides below, before
+    // this class's field initializers would have run
+    private InventoryView view;
+    private CraftableIndex craftables;
+    private DeepSeaTracker deepSea;
+    private CraftedItemStore crafted;      // Crafted items held, by CraftedItemRegistry kind
+    private CraftedItem[] samples;         // Kind -> an item of that kind, handed to Inventory to use
+
+    public JournaledInventory(GameState gameState) {
+        super(gameState);
+        getView().sync();
+    }
+
+    // Screen model kept up to date with every change
+    public InventoryView getView() {
+        if (view == null) view = new InventoryView(this);
+        return view;
+    }
+
+    // Workbench recipes that can be made, told about every material change
+    public CraftableIndex getCraftables() {
+        if (craftables == null) {
+            craftables = new CraftableIndex(RecipeBook.WORKBENCH);
+            craftables.sync(this);
+        }
+        return craftables;
+    }
+
+    public DeepSeaTracker getDeepSeaTracker() {
+        if (deepSea == null) {
+            deepSea = new DeepSeaTracker(bits -> {
+                Journal journal = journal();
+                if (journal != null) journal.deepSeaTrackerSet(bits);
+            });
+        }
+        return deepSea;
+    }
+
+    // Crafted items of one kind (a CraftedItemRegistry id) held
+    public int getCraftedItemCount(int kind) {
+        return crafted().getCount(kind);
+    }
+
+    @Override
+    public void addDeepSeaItemFound(String item) {
+        getDeepSeaTracker().add(item);
+    }
+
+    @Override
+    public int getUniqueDeepSeaItemsCount() {
+        return getDeepSeaTracker().uniqueCount();
+    }
+
+    @Override
+    public void resetDeepSeaItemTracker() {
+        getDeepSeaTracker().reset();
+    }
+
+    @Override
+    public void addRawMaterial(String name, int amount) {
+        Journal journal = materialCalls == 0 ? journal() : null;
+        materialCalls++;
+        try {
+            super.addRawMaterial(name, amount);
+        } finally {
+            materialCalls--;
+        }
+        if (materialCalls == 0) materialChanged(name);
+        if (journal != null) journal.materialAdded(name, amount);
+    }
+
+    @Override
+    public boolean useMaterial(String name) {
+        return useMaterial(name, 1, false);
+    }
+
+    @Override
+    public boolean useMaterial(String name, int amount) {
+        return useMaterial(name, amount, true);
+    }
+
+    private boolean useMaterial(String name, int amount, boolean withAmount) {
+        Journal journal = materialCalls == 0 ? journal() : null;
+        boolean used;
+        materialCalls++;
+        try {
+            used = withAmount ? super.useMaterial(name, amount) : super.useMaterial(name);
+        } finally {
+            materialCalls--;
+        }
+        if (used && materialCalls == 0) materialChanged(name);
+        if (used && journal != null) journal.materialUsed(name, amount);
+        return used;
+    }
+
+    @Override
+    public int getCraftedItemCount() {
+        return craftedCalls > 0 ? super.getCraftedItemCount() : crafted().getTotal();
+    }
+
+    @Override
+    public void addCraftedItem(CraftedItem item) {
+        if (craftedCalls > 0) {
+            super.addCraftedItem(item);
+            return;
+        }
+        addCraftedItem(item, BARE_ITEM);
+    }
+
+    // Adds a crafted item made by this recipe, so it is held (and saved) under the recipe's name
+    public void addCraftedItem(CraftedItem item, Recipe recipe) {
+        addCraftedItem(item, recipe != null ? recipe.name : BARE_ITEM);
+    }
+
+    // Adds a crafted item of a kind given by name
+    public void addCraftedItem(CraftedItem item, String kindName) {
+        int kind = CraftedItemRegistry.intern(kindName);
+        if (samples == null || kind >= samples.length) {
+            samples = Arrays.copyOf(samples == null ? new CraftedItem[0] : samples, CraftedItemRegistry.size());
+        }
+        if (samples[kind] == null) samples[kind] = item;
+        crafted().add(kind, 1);
+        getView().craftedItemsChanged(getCraftedItemCount());
+        Journal journal = journal();
+        if (journal != null) journal.craftedItemAdded(kindName);
+    }
+
+    // Uses the item at this position of the tools and food list. The item is handed to Inventory
+    // and used there; if Inventory keeps it (a reusable tool), it is taken back unchanged
+    @Override
+    public void useCraftedItem(int index) {
+        if (craftedCalls > 0) {
+            super.useCraftedItem(index);
+            return;
+        }
+        if (index < 0 || index >= crafted().getTotal()) {
+            return;
+        }
+        int kind = crafted().kindOfItem(index);
+        int fullness = getFullnessLevel();
+        boolean usedUp;
+        craftedCalls++;
+        try {
+            super.addCraftedItem(samples[kind]);
+            super.useCraftedItem(0);
+            usedUp = super.getCraftedItemCount() == 0;
+            if (!usedUp) {
+                ThreadOutput.capture(super::removeRandomCraftedItem); // The only item in its list
+            }
+        } finally {
+            craftedCalls--;
+        }
+        if (usedUp) crafted().useAt(index);
+        // Using an item can change anything (eating, potions, a tool's wear), so the view
+        // reloads everything and redraws even if no count moved
+        getView().sync();
+        getView().changed();
+        // Reusable tools stay in the inventory; only record items that were used up. Eating
+        // raises fullness inside Inventory, so the level it ends at is recorded too (material
+        // changes, revivals and exploration resets are recorded where they happen)
+        Journal journal = journal();
+        if (journal == null) return;
+        if (usedUp) journal.craftedItemUsed(CraftedItemRegistry.nameOf(kind));
+        if (getFullnessLevel() != fullness) journal.fullnessSet(getFullnessLevel());
+    }
+
+    // Akio's theft and hazards: one item picked with the game's random stream, and the player
+    // is told which one it was
+    @Override
+    public void removeRandomCraftedItem() {
+        if (craftedCalls > 0) {
+            super.removeRandomCraftedItem();
+            return;
+        }
+        int kind = crafted().removeRandom(getGameState().getRandom());
+        if (kind < 0) {
+            return;
+        }
+        String name = CraftedItemRegistry.nameOf(kind);
+        getGameState().getIO().println("Lost: your " + name + ".");
+        getView().craftedItemsChanged(getCraftedItemCount());
+        Journal journal = journal();
+        if (journal != null) journal.craftedItemRemoved(name);
+    }
+
+    // The crafted items, numbered in the order useCraftedItem takes them. Inventory's own list
+    // is empty, so this replaces its version
+    @Override
+    public void processToolsAndFood() {
+        if (craftedCalls > 0) {
+            super.processToolsAndFood();
+            return;
+        }
+        StringBuilder text = new StringBuilder("\n--- TOOLS & FOOD ---\n");
+        if (crafted().getTotal() == 0) {
+            text.append("You have no crafted items.\n");
+        }
+        int number = 1;
+        for (int stack = 0; stack < crafted().stacks(); stack++) {
+            String name = CraftedItemRegistry.nameOf(crafted().kindAt(stack));
+            Recipe recipe = RecipeBook.find(name);
+            for (int i = 0; i < crafted().countAt(stack); i++) {
+                text.append(number++).append(". ").append(name);
+                if (recipe != null) text.append(" (").append(recipe.description).append(')');
+                text.append('\n');
+            }
+        }
+        System.out.print(text);
+    }
+
+    @Override
+    public void clearInventory() {
+        craftedCalls++;
+        try {
+            super.clearInventory();
+        } finally {
+            craftedCalls--;
+        }
+        crafted().clear();
+        getCraftables().sync(this);
+        getDeepSeaTracker().reset(); // Like WorldState: Akio's theft restarts the Deep Sea set too
+        getView().sync();
+        Journal journal = journal();
+        if (journal != null) journal.inventoryCleared();
+    }
+
+    @Override
+    public void decreaseFullness() {
+        int before = getFullnessLevel();
+        super.decreaseFullness();
+        getView().fullnessChanged(getFullnessLevel());
+        Journal journal = journal();
+        if (journal != null && getFullnessLevel() < before) journal.fullnessDecreased();
+    }
+
+    @Override
+    public void registerStructure(String name) {
+        super.registerStructure(name);
+        getView().structuresChanged(hasFurnace(), hasAlchemyTable());
+        Journal journal = journal();
+        if (journal == null) return;
+        if (name.equals(RecipeBook.FURNACE.name)) journal.flagSet(GameSnapshot.FURNACE, true);
+        if (name.equals(RecipeBook.ALCHEMY_TABLE.name)) journal.flagSet(GameSnapshot.ALCHEMY_TABLE, true);
+    }
+
+    // Passes a material's new count to the screen and the craftable index
+    private void materialChanged(String name) {
+        int id = MaterialRegistry.intern(name);
+        int count = getMaterialCount(name);
+        getView().materialChanged(id, count);
+        getCraftables().onMaterialChanged(id, count);
+    }
+
+    // The crafted item store, made on first use like the view
+    private CraftedItemStore crafted() {
+        if (crafted == null) crafted = new CraftedItemStore();
+        return crafted;
+    }
+
+    private Journal journal() {
+        GameState gameState = getGameState();
+        return gameState != null ? gameState.getJournal() : null;
+    }
+}
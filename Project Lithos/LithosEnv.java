@@ -0,0 +1,209 @@
+// Gym-style environment over the headless game rules (WorldState), for training agents.
+//
+// Actions are ints (layout below): explore a place, craft a workbench recipe, ferment Grapes,
+// mix a Revival Potion with or without Platinum, eat Cooked Meat, drink a Revival Potion to
+// revive a companion, or sleep. An action that isn't possible right now (a locked place,
+// missing materials, no attempts left) changes nothing and earns nothing; legalActions() says
+// which ones are.
+//
+// The observation is a fixed-length int vector (layout below): day, weather, attempts left,
+// fullness, companion and structure flags, Deep Sea progress, then the count of every material
+// and crafted item. The reward is the change in score: every material and crafted item held,
+// plus SCORE_PER_MILESTONE for each structure standing and each companion revived this episode.
+// An episode ends after 'days' nights, or is cut off after MAX_STEPS_PER_DAY steps per day.
+//
+// VectorEnv plays many of these in lockstep, over a WorldPool.
+public final class LithosEnv {
+    static final Place[] PLACES = Place.values();
+    static final int REVIVAL_POTION = CraftedItemRegistry.REVIVAL_POTION;
+
+    // Flags shown in the observation, one 0/1 entry each
+    static final int[] FLAGS = {
+            GameSnapshot.KINO_REVIVED, GameSnapshot.BEM_REVIVED, GameSnapshot.AKIO_REVIVED,
+            GameSnapshot.MAP_FRAGMENT, GameSnapshot.FURNACE, GameSnapshot.ALCHEMY_TABLE };
+    // Companion bit per REVIVE action offset
+    static final int[] COMPANIONS = { GameSnapshot.KINO_REVIVED, GameSnapshot.BEM_REVIVED, GameSnapshot.AKIO_REVIVED };
+    static final int STRUCTURES = GameSnapshot.FURNACE | GameSnapshot.ALCHEMY_TABLE;
+
+    // Observed materials and crafted item kinds: the ones a WorldPool stores, in its column order
+    static final int[] MATERIALS = WorldPool.MATERIALS;
+    static final int[] CRAFTED = WorldPool.CRAFTED;
+
+    // --- Action layout ---
+    public static final int EXPLORE = 0;                                   // + Place ordinal
+    public static final int CRAFT = EXPLORE + PLACES.length;               // + index in RecipeBook.WORKBENCH
+    public static final int FERMENT = CRAFT + RecipeBook.WORKBENCH.size(); // Grapes -> Alcohol
+    public static final int MIX_POTION = FERMENT + 1;
+    public static final int MIX_POTION_PLATINUM = MIX_POTION + 1;          // Platinum doubles the potions
+    public static final int EAT_COOKED_MEAT = MIX_POTION_PLATINUM + 1;     // Resets today's attempts
+    public static final int REVIVE = EAT_COOKED_MEAT + 1;                  // + 0 Kino, 1 Bem, 2 Akio; uses a Revival Potion
+    public static final int SLEEP = REVIVE + COMPANIONS.length;
+    public static final int ACTIONS = SLEEP + 1;
+
+    // --- Observation layout ---
+    public static final int OBS_DAY = 0;
+    public static final int OBS_WEATHER = 1;                               // Weather ordinal
+    public static final int OBS_EXPLORATIONS = 2;
+    public static final int OBS_FULLNESS = 3;
+    public static final int OBS_FLAGS = 4;                                 // + index in flag order above
+    public static final int OBS_DEEP_SEA = OBS_FLAGS + FLAGS.length;       // Unique Deep Sea finds towards Painite
+    public static final int OBS_MATERIALS = OBS_DEEP_SEA + 1;              // + material column
+    public static final int OBS_CRAFTED = OBS_MATERIALS + MATERIALS.length; // + crafted item column
+    public static final int OBSERVATION_SIZE = OBS_CRAFTED + CRAFTED.length;
+
+    public static final int SCORE_PER_MILESTONE = 10;
+    public static final int MAX_STEPS_PER_DAY = 100;
+
+    private final GameSnapshot start;
+    private final WeatherModel weather;
+    private final int days;
+    private final GameRandom rng = new GameRandom(0);
+
+    private WorldState state;
+    private int endDay;
+    private int steps;
+    private int revived;   // Companion bits revived this episode
+    private int score;
+
+    public LithosEnv(GameSnapshot start, int days) {
+        this(start, IndependentWeather.STANDARD, days);
+    }
+
+    public LithosEnv(GameSnapshot start, WeatherModel weather, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("An episode needs at least one day: " + days);
+        }
+        this.start = start;
+        this.weather = weather;
+        this.days = days;
+    }
+
+    // Starts a new episode from a seed
+    public void reset(long seed) {
+        rng.reseed(seed);
+        reset();
+    }
+
+    // Starts a new episode, carrying on with the current random stream
+    public void reset() {
+        state = new WorldState(start);
+        endDay = start.currentDay + days;
+        steps = 0;
+        revived = 0;
+        score = score();
+    }
+
+    // Plays one action; returns the reward
+    public float step(int action) {
+        if (state == null) {
+            throw new IllegalStateException("Call reset() before the first step.");
+        }
+        if (isDone()) {
+            throw new IllegalStateException("The episode is over; call reset().");
+        }
+        steps++;
+        if (isLegal(action)) {
+            apply(action);
+        }
+        int before = score;
+        score = score();
+        return score - before;
+    }
+
+    public boolean isDone() {
+        return state.getCurrentDay() >= endDay || steps >= days * MAX_STEPS_PER_DAY;
+    }
+
+    // True if the action would do something now
+    public boolean isLegal(int action) {
+        if (action < 0 || action >= ACTIONS) return false;
+        if (action < CRAFT) return state.getExplorationsLeft() > 0 && state.canExplore(PLACES[action - EXPLORE]);
+        if (action < FERMENT) return canCraft(RecipeBook.WORKBENCH.get(action - CRAFT), false);
+        if (action < EAT_COOKED_MEAT) {
+            Recipe recipe = action == FERMENT ? RecipeBook.ALCOHOL : RecipeBook.REVIVAL_POTION;
+            return state.has(GameSnapshot.ALCHEMY_TABLE) && canCraft(recipe, action == MIX_POTION_PLATINUM);
+        }
+        if (action == EAT_COOKED_MEAT) return state.getMaterialCount(MaterialRegistry.COOKED_MEAT) > 0;
+        if (action < SLEEP) return state.getCraftedItemCount(REVIVAL_POTION) > 0;
+        return true;
+    }
+
+    // mask[offset + a] = isLegal(a) for every action
+    public void legalActions(boolean[] mask, int offset) {
+        for (int action = 0; action < ACTIONS; action++) {
+            mask[offset + action] = isLegal(action);
+        }
+    }
+
+    // Writes the observation into out[offset .. offset + OBSERVATION_SIZE)
+    public void observe(int[] out, int offset) {
+        out[offset + OBS_DAY] = state.getCurrentDay();
+        out[offset + OBS_WEATHER] = state.getWeather().ordinal();
+        out[offset + OBS_EXPLORATIONS] = state.getExplorationsLeft();
+        out[offset + OBS_FULLNESS] = state.getFullness();
+        for (int i = 0; i < FLAGS.length; i++) {
+            out[offset + OBS_FLAGS + i] = state.has(FLAGS[i]) ? 1 : 0;
+        }
+        out[offset + OBS_DEEP_SEA] = Long.bitCount(state.getDeepSeaTracker());
+        for (int i = 0; i < MATERIALS.length; i++) {
+            out[offset + OBS_MATERIALS + i] = state.getMaterialCount(MATERIALS[i]);
+        }
+        for (int i = 0; i < CRAFTED.length; i++) {
+            out[offset + OBS_CRAFTED + i] = state.getCraftedItemCount(CRAFTED[i]);
+        }
+    }
+
+    public int[] observe() {
+        int[] observation = new int[OBSERVATION_SIZE];
+        observe(observation, 0);
+        return observation;
+    }
+
+    // The game being played (read-only use, e.g. for logging)
+    public WorldState getState() {
+        return state;
+    }
+
+    // Registry ids behind the observation's material and crafted item entries
+    public static int materialAt(int column) { return MATERIALS[column]; }
+    public static int craftedKindAt(int column) { return CRAFTED[column]; }
+
+    private void apply(int action) {
+        if (action < CRAFT) {
+            state.explore(PLACES[action - EXPLORE], rng);
+        } else if (action < FERMENT) {
+            state.craft(RecipeBook.WORKBENCH.get(action - CRAFT), false, rng);
+        } else if (action == FERMENT) {
+            state.craft(RecipeBook.ALCOHOL, false, rng);
+        } else if (action == MIX_POTION || action == MIX_POTION_PLATINUM) {
+            state.craft(RecipeBook.REVIVAL_POTION, action == MIX_POTION_PLATINUM, rng);
+        } else if (action == EAT_COOKED_MEAT) {
+            state.eatCookedMeat();
+        } else if (action < SLEEP) {
+            revive(action - REVIVE);
+        } else {
+            state.sleep(weather, rng);
+        }
+    }
+
+    private void revive(int companion) {
+        boolean drank = switch (companion) {
+            case 0 -> state.reviveKino();
+            case 1 -> state.reviveBem();
+            default -> state.reviveAkio();
+        };
+        if (drank) revived |= COMPANIONS[companion];
+    }
+
+    private boolean canCraft(Recipe recipe, boolean withCatalyst) {
+        return !state.isBuilt(recipe) && recipe.hasInputs(state::getMaterialCount, 1, withCatalyst);
+    }
+
+    private int score() {
+        int held = state.getCraftedItemCount();
+        for (int id : MATERIALS) {
+            held += state.getMaterialCount(id);
+        }
+        return held + SCORE_PER_MILESTONE * (Integer.bitCount(state.getFlags() & STRUCTURES) + Integer.bitCount(revived));
+    }
+}
@@ -1,20 +1,37 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class Main {
 
-    // Scanner for user input
-    private final Scanner sc = new Scanner(System.in);
+    // Player input and game output (console, or scripted in-memory sessions)
+    private final GameIO io;
 
-    // Core game systems
-    private final Inventory inventory;
+    // Record of every change to this game, when started with --journal (null otherwise)
+    private Journal journal;
+
+    // Dramatic delays: cinematic, fast or none at all
+    private final Pacing pacing;
+
+    // Intro text collected in INSTANT mode, written with a single print
+    private final StringBuilder narration = new StringBuilder();
+
+    // Core game systems (a load replaces the Inventory, and the systems built on it, see useInventory)
+    private JournaledInventory inventory;
     private final GameState gameState;
-    private final Explore explore;
-    private final Create create;
+    private Explore explore;
+    private Create create;
     private final GuideBook guideBook;
-    private final AlchemyTable alchemyTable;
+    private AlchemyTable alchemyTable;
     
-    // Ensures intro only plays once
-    private static boolean introPlayed = false; 
+    // Where Save/Load keep the game; hosted sessions each get their own file
+    static final Path DEFAULT_SAVE_PATH = Paths.get("lithos.sav");
+    private final Path savePath;
+
+    // Ensures intro only plays once per game (each hosted session has its own Main)
+    private boolean introPlayed = false; 
 
     // Intro story text
     private static final String INTRO_TEXT_PART_1 = "Over the horizon, a vast blue light swelled and crept across the land.";
@@ -30,29 +47,106 @@ public class Main {
     private static final String INTRO_TEXT_PART_11 = "Humanity has fallen silent and you are its first voice in millennia.";
     private static final String INTRO_TEXT_PART_12 = "Your mission: restore civilization's greatest weapons; knowledge, technology, and HOPE.";
     private static final String INTRO_TEXT_PART_13 = "Your choices will determine the future.";
+    
+    // The intro's dramatic beat, typed like the story lines with a long pause after each dot
+    private static final String DOT_CRACK_TEXT = ". . . CRACK.";
+    
+    // Cinematic typewriter pauses (scaled by Pacing): after each character, and after each dot of the beat
+    private static final long CHAR_PAUSE_MILLIS = 30;
+    private static final long BEAT_PAUSE_MILLIS = 600;
 
     public Main() {
+        this(ConsoleIO.get(), Pacing.fromSystemProperty());
+    }
+
+    public Main(GameIO io) {
+        this(io, Pacing.fromSystemProperty());
+    }
+
+    public Main(GameIO io, Pacing pacing) {
+        this(io, pacing, DEFAULT_SAVE_PATH);
+    }
+
+    public Main(GameIO io, Pacing pacing, Path savePath) {
+        this.io = io;
+        this.pacing = pacing;
+        this.savePath = savePath;
+
         // Create a new game state
         this.gameState = new GameState(null); 
+        this.gameState.setIO(io); // Every subsystem reads and writes through the same port
         
         // Create inventory and link it to gameState
-        this.inventory = new Inventory(this.gameState); 
-        this.gameState.setInventory(this.inventory); 
+        this.gameState.setInventory(new JournaledInventory(this.gameState)); // Reports changes once a journal is attached
         
         // Initialize other systems
+        useInventory();
+        this.guideBook = new GuideBook(); 
+    }
+
+    // Builds the systems that hold the Inventory around the game's current one
+    // (GameSnapshot.restore gives the game a fresh Inventory)
+    private void useInventory() {
+        this.inventory = (JournaledInventory) gameState.getInventory();
         this.explore = new Explore(this.gameState); 
         this.create = new Create(this.inventory); 
-        this.guideBook = new GuideBook(); 
         this.alchemyTable = new AlchemyTable(this.inventory); 
     }
 
     public static void main(String[] args) {
-        Main game = new Main();
+        Main game = new Main(ConsoleIO.get(), Pacing.fromArgs(args)); // e.g. --pacing=instant
+        
+        // "--seed=<number>" replays a game: same seed + same commands = same game
+        // "--journal=<file>" records every change, and recovers from that file if it already exists
+        // "--metrics=<seconds>" prints play metrics to stderr that often (they are also on JMX)
+        // "--weather-persistence=<0..1>" makes weather tend to last (chance to keep today's weather)
+        for (String arg : args) {
+            if (arg.startsWith("--seed=")) {
+                game.getGameState().getRandom().reseed(Long.parseLong(arg.substring("--seed=".length())));
+            } else if (arg.startsWith("--journal=")) {
+                game.startJournal(Paths.get(arg.substring("--journal=".length())));
+            } else if (arg.startsWith("--weather-persistence=")) {
+                double stay = Double.parseDouble(arg.substring("--weather-persistence=".length()));
+                game.getGameState().setWeatherModel(MarkovWeather.persistent(stay));
+            } else if (arg.startsWith("--metrics=")) {
+                Metrics.registerMBean();
+                Metrics.startDump(Long.parseLong(arg.substring("--metrics=".length())), System.err);
+            }
+        }
         game.run(); // Start the game
     }
 
+    // The game being played (for seeding, snapshots and scripted runs)
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    // Recovers the game from an existing journal, then starts recording a fresh one from here
+    public void startJournal(Path path) {
+        try {
+            if (Files.exists(path)) {
+                JournalReplayer.replay(path).toSnapshot().restore(gameState);
+                useInventory();
+                io.println("Recovered the game from " + path + ". It is Day " + gameState.getCurrentDay() + ".");
+            }
+            journal = Journal.create(path, GameSnapshot.capture(gameState));
+            gameState.setJournal(journal);
+        } catch (IOException e) {
+            io.println("Could not open the journal: " + e.getMessage());
+        }
+    }
+
     public void run() {
-        System.out.println("Welcome to Project Lithos!");
+        try {
+            play();
+        } catch (NoSuchElementException e) {
+            // Input ended (closed terminal, end of a piped file or of a scripted session)
+            exitGame();
+        }
+    }
+
+    private void play() {
+        io.println("Welcome to Project Lithos!");
         
         // Show intro only once
         if (!introPlayed) {
@@ -71,7 +165,7 @@ public class Main {
             
             // Show menu options
             displayMainMenu();
-            String input = sc.nextLine().trim();
+            String input = io.readLine().trim();
 
             try {
                 int choice = Integer.parseInt(input);
@@ -85,11 +179,13 @@ public class Main {
                     case 5 -> enterAlchemyMenu();
                     case 6 -> enterSleepMenu();
                     case 7 -> { exitGame(); return; }
-                    default -> System.out.println("Invalid choice. Please try again.");
+                    case 8 -> saveGame();
+                    case 9 -> loadGame();
+                    default -> io.println("Invalid choice. Please try again.");
                 }
 
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number.");
+                io.println("Invalid input. Please enter a number.");
             }
         }
     }
@@ -97,13 +193,14 @@ public class Main {
     // Ending condition check
     private boolean checkGameOver() {
         if (gameState.allCompanionsRevived()) {
-            System.out.println("\n-----------------------------------------------------");
-            System.out.print("You have successfully restored humanity's greatest tool . . . . ");
-            try { Thread.sleep(1500); } catch (InterruptedException ignored) {}
-            System.out.print("HOPE.");
-            System.out.println("\n-----------------------------------------------------");
-            System.out.print("[Enter] Thank you for playing, Project Lithos.");
-            sc.nextLine();
+            io.println("\n-----------------------------------------------------");
+            io.print("You have successfully restored humanity's greatest tool . . . . ");
+            pacing.pause(1500);
+            io.print("HOPE.");
+            io.println("\n-----------------------------------------------------");
+            io.print("[Enter] Thank you for playing, Project Lithos.");
+            io.emit(new GameEvent(GameEvent.Type.GAME_WON, null));
+            io.readLine();
             return true;
         }
         return false;
@@ -111,78 +208,115 @@ public class Main {
     
     // Sleep → advances the day
     private void enterSleepMenu() {
-        System.out.println("\nDo you wish to Sleep? This will advance the day.");
-        System.out.print("Type 'y' to sleep, or 'n' to cancel: ");
+        io.println("\nDo you wish to Sleep? This will advance the day.");
+        io.print("Type 'y' to sleep, or 'n' to cancel: ");
 
-        if (sc.nextLine().trim().equalsIgnoreCase("y")) {
+        if (io.readLine().trim().equalsIgnoreCase("y")) {
             gameState.sleep();
+            gameState.flushJournal();
         }
     }
 
     // Plays the intro story text
     private void startStoryIntroduction() {
-        System.out.println("\n");
-        TextUtil.type(INTRO_TEXT_PART_1);
-        System.out.println();
-        TextUtil.type(INTRO_TEXT_PART_2);
-        TextUtil.type(INTRO_TEXT_PART_3);
-        System.out.println();
-        TextUtil.typeDotCrack();
-        System.out.println();
-        TextUtil.type(INTRO_TEXT_PART_4);
-        System.out.println();
-        TextUtil.type(INTRO_TEXT_PART_5);
-        System.out.println();
-        TextUtil.type(INTRO_TEXT_PART_6);
-        TextUtil.type(INTRO_TEXT_PART_7);
-        TextUtil.type(INTRO_TEXT_PART_8);
-        TextUtil.type(INTRO_TEXT_PART_9);
-        TextUtil.type(INTRO_TEXT_PART_10);
-        System.out.println();
-        TextUtil.type(INTRO_TEXT_PART_11);
-        TextUtil.type(INTRO_TEXT_PART_12);
-        TextUtil.type(INTRO_TEXT_PART_13);
-        System.out.println("--------------------------");
+        line("\n");
+        type(INTRO_TEXT_PART_1);
+        line("");
+        type(INTRO_TEXT_PART_2);
+        type(INTRO_TEXT_PART_3);
+        line("");
+        typeDotCrack();
+        line("");
+        type(INTRO_TEXT_PART_4);
+        line("");
+        type(INTRO_TEXT_PART_5);
+        line("");
+        type(INTRO_TEXT_PART_6);
+        type(INTRO_TEXT_PART_7);
+        type(INTRO_TEXT_PART_8);
+        type(INTRO_TEXT_PART_9);
+        type(INTRO_TEXT_PART_10);
+        line("");
+        type(INTRO_TEXT_PART_11);
+        type(INTRO_TEXT_PART_12);
+        type(INTRO_TEXT_PART_13);
+        line("--------------------------");
+        flushNarration();
         
-        System.out.print("\nPress ENTER to begin Day " + gameState.getCurrentDay() + "...");
-        sc.nextLine();
-        System.out.println("\n");
+        io.print("\nPress ENTER to begin Day " + gameState.getCurrentDay() + "...");
+        io.readLine();
+        io.println("\n");
+    }
+
+    // One line of story text, typed out through the game's port a character at a time at the
+    // Pacing's speed. Every mode writes the same text; INSTANT collects it with the rest
+    private void type(String text) {
+        type(text, 0);
+    }
+
+    // The dramatic ". . . CRACK." beat of the intro
+    private void typeDotCrack() {
+        type(DOT_CRACK_TEXT, BEAT_PAUSE_MILLIS);
+    }
+
+    private void type(String text, long dotPauseMillis) {
+        if (pacing == Pacing.INSTANT) {
+            line(text);
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            io.print(String.valueOf(c));
+            pacing.pause(c == '.' && dotPauseMillis > 0 ? dotPauseMillis : CHAR_PAUSE_MILLIS);
+        }
+        io.println("");
+    }
+
+    // Plain story line; INSTANT mode collects the whole intro and writes it in one go
+    private void line(String text) {
+        if (pacing == Pacing.INSTANT) {
+            narration.append(text).append('\n');
+        } else {
+            io.println(text);
+        }
+    }
+
+    // Writes any collected story text
+    private void flushNarration() {
+        if (narration.length() > 0) {
+            io.print(narration.toString());
+            narration.setLength(0);
+        }
     }
 
     // Displays the main option menu
     private void displayMainMenu() {
-        System.out.println("\n--- (Day " + gameState.getCurrentDay() + ") ---");
-        System.out.println("1. Explore [" + gameState.getExplorationsLeft() + " attempts left]");
-        System.out.println("2. Create");
-        System.out.println("3. Inventory & Tools");
-        System.out.println("4. Guide Book");
-        System.out.println("5. Alchemy");
-        System.out.println("6. Sleep");
-        System.out.println("7. Exit");
-        System.out.print("Enter your choice: ");
+        io.println("\n--- (Day " + gameState.getCurrentDay() + ") ---");
+        io.println("1. Explore [" + gameState.getExplorationsLeft() + " attempts left]");
+        io.println("2. Create");
+        io.println("3. Inventory & Tools");
+        io.println("4. Guide Book");
+        io.println("5. Alchemy");
+        io.println("6. Sleep");
+        io.println("7. Exit");
+        io.println("8. Save Game");
+        io.println("9. Load Game");
+        io.print("Enter your choice: ");
     }
 
     // Inventory screen + tool usage
     private void enterInventoryMenu() {
+        InventoryView view = inventory.getView();
         while(true) {
-            System.out.println("\n--- INVENTORY & TOOLS ---");
-            
-            // Show resource list
-            inventory.showInventory(); 
-            
-            // Show crafted tools and food
-            inventory.processToolsAndFood();
+            // Resource list, tools and food: Inventory's own text, rebuilt only after it changes
+            io.print(view.screen());
 
             int craftedCount = inventory.getCraftedItemCount();
 
             // Display instructions
-            if (craftedCount == 0) {
-                 System.out.println("\nNo crafted items to use. Type 'back' to return.");
-            } else {
-                 System.out.println("\nSelect crafted item to use (1-" + craftedCount + "), or type 'back' to return:");
-            }
+            io.print(view.prompt());
             
-            String input = sc.nextLine().trim();
+            String input = io.readLine().trim();
 
             if (input.equalsIgnoreCase("back")) break;
 
@@ -192,12 +326,13 @@ public class Main {
                 // Use selected crafted item
                 if (choice >= 1 && choice <= craftedCount) {
                     inventory.useCraftedItem(choice - 1);
+                    gameState.flushJournal();
                 } else {
-                    System.out.println("Invalid selection.");
+                    io.println("Invalid selection.");
                 }
 
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input! Please enter a number or 'back'.");
+                io.println("Invalid input! Please enter a number or 'back'.");
             }
         }
     }
@@ -207,9 +342,46 @@ public class Main {
         alchemyTable.enterAlchemyMenu();
     }
 
-    // Quit game and close scanner
+    // Writes the current game to the save file
+    private void saveGame() {
+        try {
+            SaveFile.write(savePath, GameSnapshot.capture(gameState));
+            io.println("Game saved to " + savePath + ".");
+        } catch (IOException e) {
+            io.println("Could not save the game: " + e.getMessage());
+        }
+    }
+
+    // Restores the game from the save file
+    private void loadGame() {
+        if (!Files.exists(savePath)) {
+            io.println("No saved game found.");
+            return;
+        }
+        try {
+            SaveFile.read(savePath).restore(gameState);
+            useInventory();
+            if (journal != null) {
+                journal.checkpoint(GameSnapshot.capture(gameState)); // Replay starts from the loaded game
+                gameState.flushJournal();
+            }
+            io.println("Game loaded. It is Day " + gameState.getCurrentDay() + ".");
+        } catch (IOException e) {
+            io.println("Could not load the game: " + e.getMessage());
+        }
+    }
+
+    // Quit game (the console input is shared, so it is left open)
     private void exitGame() {
-        System.out.println("Thank you for playing. Goodbye!");
-        try { sc.close(); } catch (Exception ignored) {}
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                io.println("Could not finish the journal: " + e.getMessage());
+            }
+            gameState.setJournal(null);
+            journal = null;
+        }
+        io.println("Thank you for playing. Goodbye!");
     }
 }
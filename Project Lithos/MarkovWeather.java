@@ -0,0 +1,78 @@
+import java.util.random.RandomGenerator;
+
+// Weather as a Markov chain: tomorrow's odds depend on today's weather, so storms and
+// sunny spells can last several days. Each row is sampled with an AliasTable in O(1).
+public final class MarkovWeather implements WeatherModel {
+    private final double[][] transitions;  // [today][tomorrow] by ordinal, each row sums to 1
+    private final AliasTable[] rows;
+
+    // transitions[today][tomorrow]: relative weights by Weather ordinal (rows are normalized)
+    public MarkovWeather(double[][] transitions) {
+        int n = Weather.values().length;
+        if (transitions.length != n) {
+            throw new IllegalArgumentException("Need one row per weather (" + n + "), got " + transitions.length);
+        }
+        this.transitions = new double[n][];
+        this.rows = new AliasTable[n];
+        for (int today = 0; today < n; today++) {
+            double[] row = transitions[today];
+            if (row.length != n) {
+                throw new IllegalArgumentException("Row " + Weather.values()[today] + " needs " + n + " weights, got " + row.length);
+            }
+            rows[today] = new AliasTable(row); // Also rejects negative and all-zero rows
+            double total = 0;
+            for (double w : row) total += w;
+            this.transitions[today] = new double[n];
+            for (int tomorrow = 0; tomorrow < n; tomorrow++) {
+                this.transitions[today][tomorrow] = row[tomorrow] / total;
+            }
+        }
+    }
+
+    // Keeps today's weather with the given chance, otherwise rolls the standard odds.
+    // The long-run share of each weather stays the standard one; only the streaks get longer
+    // A streak of weather w lasts 1 / ((1 - stay) * (1 - p_w)) days on average: storms ~1.9 days
+    // at stay 0.4, against ~1.1 days with independent rolls.
+    public static MarkovWeather persistent(double stay) {
+        if (!(stay >= 0 && stay < 1)) {
+            throw new IllegalArgumentException("Chance to keep the weather must be in [0, 1): " + stay);
+        }
+        double[] standard = IndependentWeather.STANDARD.chances(null, 0);
+        double[][] transitions = new double[standard.length][standard.length];
+        for (int today = 0; today < standard.length; today++) {
+            for (int tomorrow = 0; tomorrow < standard.length; tomorrow++) {
+                transitions[today][tomorrow] = (1 - stay) * standard[tomorrow] + (today == tomorrow ? stay : 0);
+            }
+        }
+        return new MarkovWeather(transitions);
+    }
+
+    @Override
+    public Weather next(Weather previous, int day, RandomGenerator rng) {
+        return Weather.values()[rows[previous.ordinal()].sample(rng)];
+    }
+
+    @Override
+    public double[] chances(Weather previous, int day) {
+        return transitions[previous.ordinal()].clone();
+    }
+
+    // Long-run share of days with each weather, by ordinal (power iteration from the standard odds)
+    public double[] stationary() {
+        int n = transitions.length;
+        double[] share = IndependentWeather.STANDARD.chances(null, 0);
+        for (int step = 0; step < 1000; step++) {
+            double[] next = new double[n];
+            for (int today = 0; today < n; today++) {
+                for (int tomorrow = 0; tomorrow < n; tomorrow++) {
+                    next[tomorrow] += share[today] * transitions[today][tomorrow];
+                }
+            }
+            double change = 0;
+            for (int i = 0; i < n; i++) change += Math.abs(next[i] - share[i]);
+            share = next;
+            if (change < 1e-12) break;
+        }
+        return share;
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Raw material counts stored in an int[] indexed by MaterialRegistry id.
+// This is the backing store for Inventory's materials: the id overloads are the fast path,
+// the String overloads are thin adapters that resolve the id once and delegate.
+public class MaterialCounts {
+    private int[] counts = new int[MaterialRegistry.size()];
+
+    // Amount held of a material (0 for ids registered after this store last grew)
+    public int getMaterialCount(int id) {
+        return id < counts.length ? counts[id] : 0;
+    }
+
+    // True if at least one of the material is held
+    public boolean hasMaterial(int id) {
+        return getMaterialCount(id) > 0;
+    }
+
+    // Adds an amount of a material
+    public void addRawMaterial(int id, int amount) {
+        if (id >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(id + 1, MaterialRegistry.size()));
+        }
+        counts[id] += amount;
+    }
+
+    // Removes an amount if enough is held; returns false (and changes nothing) otherwise
+    public boolean useMaterial(int id, int amount) {
+        if (getMaterialCount(id) < amount) {
+            return false;
+        }
+        counts[id] -= amount;
+        return true;
+    }
+
+    // Removes a single unit
+    public boolean useMaterial(int id) {
+        return useMaterial(id, 1);
+    }
+
+    // Empties every material
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    // Independent copy of these counts
+    public MaterialCounts copy() {
+        MaterialCounts copy = new MaterialCounts();
+        copy.counts = counts.clone();
+        return copy;
+    }
+
+    // --- String adapters (unknown names simply count as 0) ---
+
+    public int getMaterialCount(String name) {
+        int id = MaterialRegistry.idOf(name);
+        return id < 0 ? 0 : getMaterialCount(id);
+    }
+
+    public boolean hasMaterial(String name) {
+        return getMaterialCount(name) > 0;
+    }
+
+    public void addRawMaterial(String name, int amount) {
+        addRawMaterial(MaterialRegistry.intern(name), amount);
+    }
+
+    public boolean useMaterial(String name, int amount) {
+        int id = MaterialRegistry.idOf(name);
+        return id >= 0 && useMaterial(id, amount);
+    }
+
+    public boolean useMaterial(String name) {
+        return useMaterial(name, 1);
+    }
+
+    // Held materials by name, in id order (for display)
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                map.put(MaterialRegistry.nameOf(id), counts[id]);
+            }
+        }
+        return map;
+    }
+}
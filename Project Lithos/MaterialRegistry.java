@@ -0,0 +1,57 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Interns material names to dense int ids (0, 1, 2, ...),
+// so hot loops can count materials in plain int arrays instead of String maps.
+public final class MaterialRegistry {
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>(); // Name -> id
+    private static volatile String[] names = new String[0];                     // Id -> name
+
+    // Materials the game code refers to directly, registered up front so their ids are fixed
+    public static final int STONE = intern("Stone");
+    public static final int WOOD = intern("Wood");
+    public static final int PAINITE = intern("Painite");
+    public static final int PLATINUM = intern("Platinum");
+    public static final int GRAPES = intern("Grapes");
+    public static final int ALCOHOL = intern("Alcohol");
+    public static final int NITRIC_ACID = intern("Nitric Acid");
+    public static final int COOKED_MEAT = intern("Cooked Meat");
+
+    private MaterialRegistry() {}
+
+    // Returns the id for a material, registering it on first use
+    public static int intern(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (MaterialRegistry.class) {
+            id = IDS.get(name);
+            if (id == null) {
+                String[] grown = Arrays.copyOf(names, names.length + 1);
+                grown[names.length] = name;
+                id = names.length;
+                names = grown; // Publish the name before the id becomes visible
+                IDS.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    // Id of an already registered material, or -1 if it was never seen
+    public static int idOf(String name) {
+        Integer id = IDS.get(name);
+        return id == null ? -1 : id;
+    }
+
+    // Material name for an id
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    // Number of registered materials; int count arrays should be at least this long
+    public static int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,178 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// What players are doing, for the whole JVM (every hosted session adds to the same counters).
+// Counters are LongAdders: striped, so sessions on different threads don't contend, and an
+// update allocates nothing once a stripe exists. Read them over JMX (registerMBean), as a
+// periodic dump (startDump), or with report(). Timings come from the JFR events
+// (ExplorationEvent, CraftEvent, SleepEvent), which cost nothing unless a recording is running.
+public final class Metrics {
+    private static final Place[] PLACES = Place.values();
+
+    private static final LongAdder[] EXPLORATIONS = adders(PLACES.length); // Per Place ordinal
+    private static final LongAdder[] DROP_HITS = adders(PLACES.length);    // Drop table slots that dropped
+    private static final LongAdder[] DROP_MISSES = adders(PLACES.length);  // Drop table slots that didn't
+    private static final LongAdder HAZARDS = new LongAdder();
+    private static final LongAdder GACHA_PAYOUTS = new LongAdder();
+    private static final LongAdder CRAFT_SUCCESSES = new LongAdder();
+    private static final LongAdder CRAFT_FAILURES = new LongAdder();
+    private static final LongAdder DAYS_SLEPT = new LongAdder();
+
+    private static boolean registered;
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() {}
+
+    // --- Updates (allocation-free) ---
+
+    static void explored(Place place) {
+        EXPLORATIONS[place.ordinal()].increment();
+    }
+
+    static void dropRolls(Place place, int hits, int misses) {
+        DROP_HITS[place.ordinal()].add(hits);
+        DROP_MISSES[place.ordinal()].add(misses);
+    }
+
+    static void hazard() {
+        HAZARDS.increment();
+    }
+
+    static void gachaPayout() {
+        GACHA_PAYOUTS.increment();
+    }
+
+    static void craftRolled(boolean success) {
+        (success ? CRAFT_SUCCESSES : CRAFT_FAILURES).increment();
+    }
+
+    static void craftsRolled(int attempted, int succeeded) {
+        CRAFT_SUCCESSES.add(succeeded);
+        CRAFT_FAILURES.add(attempted - succeeded);
+    }
+
+    static void daySlept() {
+        DAYS_SLEPT.increment();
+    }
+
+    // --- JFR ---
+
+    static void craftEvent(String recipe, int attempted, int succeeded) {
+        CraftEvent event = new CraftEvent();
+        if (event.shouldCommit()) {
+            event.recipe = recipe;
+            event.attempted = attempted;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    static void sleepEvent(int day, Weather weather) {
+        SleepEvent event = new SleepEvent();
+        if (event.shouldCommit()) {
+            event.day = day;
+            event.weather = weather.name();
+            event.commit();
+        }
+    }
+
+    // --- Reading ---
+
+    public static long getExplorations(Place place) { return EXPLORATIONS[place.ordinal()].sum(); }
+    public static long getDropHits(Place place) { return DROP_HITS[place.ordinal()].sum(); }
+    public static long getDropMisses(Place place) { return DROP_MISSES[place.ordinal()].sum(); }
+    public static long getHazards() { return HAZARDS.sum(); }
+    public static long getGachaPayouts() { return GACHA_PAYOUTS.sum(); }
+    public static long getCraftSuccesses() { return CRAFT_SUCCESSES.sum(); }
+    public static long getCraftFailures() { return CRAFT_FAILURES.sum(); }
+    public static long getDaysSlept() { return DAYS_SLEPT.sum(); }
+
+    // Sets every counter back to zero
+    public static void reset() {
+        for (Place place : PLACES) {
+            EXPLORATIONS[place.ordinal()].reset();
+            DROP_HITS[place.ordinal()].reset();
+            DROP_MISSES[place.ordinal()].reset();
+        }
+        HAZARDS.reset();
+        GACHA_PAYOUTS.reset();
+        CRAFT_SUCCESSES.reset();
+        CRAFT_FAILURES.reset();
+        DAYS_SLEPT.reset();
+    }
+
+    // Every counter as readable text
+    public static String report() {
+        StringBuilder sb = new StringBuilder("--- Lithos metrics ---\n");
+        for (Place place : PLACES) {
+            long hits = getDropHits(place);
+            long rolls = hits + getDropMisses(place);
+            sb.append(String.format("%-15s %10d explorations, drop hit rate %.3f%n",
+                    place.name, getExplorations(place), rolls == 0 ? 0.0 : (double) hits / rolls));
+        }
+        sb.append(String.format("Hazards %d, gacha payouts %d, crafts %d ok / %d failed, days slept %d%n",
+                getHazards(), getGachaPayouts(), getCraftSuccesses(), getCraftFailures(), getDaysSlept()));
+        return sb.toString();
+    }
+
+    // Publishes the counters as the MXBean "lithos:type=Metrics" (once per JVM)
+    public static synchronized void registerMBean() {
+        if (registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName("lithos:type=Metrics"));
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the metrics MBean.", e);
+        }
+    }
+
+    // Prints report() every period on a background thread (replaces any earlier dump)
+    public static synchronized void startDump(long periodSeconds, PrintStream out) {
+        stopDump();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "lithos-metrics");
+            thread.setDaemon(true); // Never keeps the game running
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(report()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    private static Map<String, Long> byPlace(LongAdder[] adders) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Place place : PLACES) values.put(place.name, adders[place.ordinal()].sum());
+        return values;
+    }
+
+    private static final class Bean implements MetricsMXBean {
+        @Override public Map<String, Long> getExplorationsByPlace() { return byPlace(EXPLORATIONS); }
+        @Override public Map<String, Long> getDropHitsByPlace() { return byPlace(DROP_HITS); }
+        @Override public Map<String, Long> getDropMissesByPlace() { return byPlace(DROP_MISSES); }
+        @Override public long getHazards() { return Metrics.getHazards(); }
+        @Override public long getGachaPayouts() { return Metrics.getGachaPayouts(); }
+        @Override public long getCraftSuccesses() { return Metrics.getCraftSuccesses(); }
+        @Override public long getCraftFailures() { return Metrics.getCraftFailures(); }
+        @Override public long getDaysSlept() { return Metrics.getDaysSlept(); }
+        @Override public void reset() { Metrics.reset(); }
+    }
+}
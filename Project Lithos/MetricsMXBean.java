@@ -0,0 +1,22 @@
+import java.util.Map;
+
+// JMX view of Metrics, registered as "lithos:type=Metrics" (see Metrics.registerMBean)
+public interface MetricsMXBean {
+    Map<String, Long> getExplorationsByPlace();
+
+    Map<String, Long> getDropHitsByPlace();
+
+    Map<String, Long> getDropMissesByPlace();
+
+    long getHazards();
+
+    long getGachaPayouts();
+
+    long getCraftSuccesses();
+
+    long getCraftFailures();
+
+    long getDaysSlept();
+
+    void reset();
+}
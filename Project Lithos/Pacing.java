@@ -0,0 +1,59 @@
+// How much the game waits for dramatic effect.
+// Chosen with "--pacing=<mode>" on the command line or the "lithos.pacing" system property.
+public enum Pacing {
+    CINEMATIC(1.0), // Typewriter intro and full pauses (default)
+    FAST(0.1),      // Typewriter and pauses at a tenth of their length
+    INSTANT(0.0);   // No delays at all; the same text is written in one go
+
+    public static final String PROPERTY = "lithos.pacing";
+    private static final String ARGUMENT = "--pacing=";
+
+    // Fraction of each scripted pause that is actually waited
+    private final double delayScale;
+
+    Pacing(double delayScale) {
+        this.delayScale = delayScale;
+    }
+
+    // Waits for the given cinematic duration, scaled for this mode
+    public void pause(long cinematicMillis) {
+        long millis = (long) (cinematicMillis * delayScale);
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Keep the interrupt for whoever is running the game
+        }
+    }
+
+    // "--pacing=fast" wins over the system property; unknown values fall back to CINEMATIC
+    public static Pacing fromArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(ARGUMENT)) {
+                return parse(arg.substring(ARGUMENT.length()));
+            }
+        }
+        return fromSystemProperty();
+    }
+
+    public static Pacing fromSystemProperty() {
+        return parse(System.getProperty(PROPERTY, CINEMATIC.name()));
+    }
+
+    private static Pacing parse(String value) {
+        String normalized = value.trim().toUpperCase();
+        for (Pacing pacing : values()) {
+            if (pacing.name().equals(normalized)) {
+                return pacing;
+            }
+        }
+        // Friendly aliases
+        return switch (normalized) {
+            case "FULL" -> CINEMATIC;
+            case "ZERO", "NONE", "TURBO" -> INSTANT;
+            default -> CINEMATIC;
+        };
+    }
+}
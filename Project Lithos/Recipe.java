@@ -0,0 +1,165 @@
+import java.util.StringJoiner;
+import java.util.function.IntUnaryOperator;
+import java.util.random.RandomGenerator;
+
+// One craftable recipe: what it takes, what it makes and how likely it is to work.
+// Recipes are plain data; RecipeBook holds the game's list of them.
+public class Recipe {
+    // What kind of thing a successful craft produces
+    public enum Output {
+        STRUCTURE, // Permanent structure registered on the Inventory (built once)
+        ITEM,      // CraftedItem added to the Inventory
+        MATERIAL   // Raw material added to the Inventory
+    }
+
+    public final String name;            // Output name ("Spear", "Alcohol", ...)
+    public final String description;     // Shown in the menu and stored on crafted items
+    public final Output output;
+    public final int successRate;        // % chance a unit succeeds (Bem makes it 100)
+    public final String failureMessage;  // Printed when a single craft fails
+
+    private final int[] inputIds;        // Material ids consumed per unit
+    private final int[] inputAmounts;    // Amount of each material per unit
+
+    private final int catalystId;        // Optional extra material per unit, -1 for none
+    private final int catalystMultiplier; // Output multiplier when the catalyst is used
+
+    // inputs are (material id, amount) pairs, e.g. WOOD, 1, STONE, 1
+    public Recipe(String name, String description, Output output, int successRate, String failureMessage, int... inputs) {
+        this(name, description, output, successRate, failureMessage, -1, 1, pairs(name, inputs));
+    }
+
+    private Recipe(String name, String description, Output output, int successRate, String failureMessage,
+                   int catalystId, int catalystMultiplier, int[][] inputs) {
+        this.name = name;
+        this.description = description;
+        this.output = output;
+        this.successRate = successRate;
+        this.failureMessage = failureMessage;
+        this.catalystId = catalystId;
+        this.catalystMultiplier = catalystMultiplier;
+        this.inputIds = inputs[0];
+        this.inputAmounts = inputs[1];
+    }
+
+    // Splits (id, amount, id, amount, ...) into an id array and an amount array
+    private static int[][] pairs(String name, int[] inputs) {
+        if (inputs.length % 2 != 0) {
+            throw new IllegalArgumentException("Recipe inputs must be (material, amount) pairs: " + name);
+        }
+        int[][] split = new int[2][inputs.length / 2];
+        for (int i = 0; i < inputs.length / 2; i++) {
+            split[0][i] = inputs[2 * i];
+            split[1][i] = inputs[2 * i + 1];
+        }
+        return split;
+    }
+
+    // Same recipe with an optional catalyst: 1 extra unit of it per craft multiplies the output
+    public Recipe withCatalyst(int materialId, int multiplier) {
+        return new Recipe(name, description, output, successRate, failureMessage, materialId, multiplier,
+                new int[][] { inputIds, inputAmounts });
+    }
+
+    public boolean isPermanent() { return output == Output.STRUCTURE; }
+    public boolean hasCatalyst() { return catalystId >= 0; }
+    public int getCatalystId() { return catalystId; }
+    public int getCatalystMultiplier() { return catalystMultiplier; }
+
+    // Number of distinct input materials
+    public int inputCount() { return inputIds.length; }
+    public int inputId(int i) { return inputIds[i]; }
+    public int inputAmount(int i) { return inputAmounts[i]; }
+
+    // True if this recipe consumes the material (as an input or as its catalyst)
+    public boolean uses(int materialId) {
+        if (materialId == catalystId) return true;
+        for (int id : inputIds) {
+            if (id == materialId) return true;
+        }
+        return false;
+    }
+
+    // Requirement text in the menu's style, e.g. "3 Stone" or "Wood + Stone + Painite"
+    public String needsText() {
+        StringJoiner needs = new StringJoiner(" + ");
+        for (int i = 0; i < inputIds.length; i++) {
+            String material = MaterialRegistry.nameOf(inputIds[i]);
+            needs.add(inputAmounts[i] == 1 ? material : inputAmounts[i] + " " + material);
+        }
+        return needs.toString();
+    }
+
+    // True if 'units' crafts' worth of inputs (plus catalyst if wanted) are available.
+    // counts maps a material id to the amount held, so this works for any inventory representation
+    public boolean hasInputs(IntUnaryOperator counts, int units, boolean withCatalyst) {
+        for (int i = 0; i < inputIds.length; i++) {
+            if (counts.applyAsInt(inputIds[i]) < (long) inputAmounts[i] * units) return false;
+        }
+        return !withCatalyst || !hasCatalyst() || counts.applyAsInt(catalystId) >= units;
+    }
+
+    // hasInputs() against the player's Inventory
+    public boolean hasInputs(Inventory inventory, int units, boolean withCatalyst) {
+        return hasInputs(id -> inventory.getMaterialCount(MaterialRegistry.nameOf(id)), units, withCatalyst);
+    }
+
+    // Takes 'units' crafts' worth of inputs (and catalyst) from the Inventory, one update per material
+    public void consumeInputs(Inventory inventory, int units, boolean withCatalyst) {
+        for (int i = 0; i < inputIds.length; i++) {
+            inventory.useMaterial(MaterialRegistry.nameOf(inputIds[i]), inputAmounts[i] * units);
+        }
+        if (withCatalyst && hasCatalyst()) {
+            inventory.useMaterial(MaterialRegistry.nameOf(catalystId), units);
+        }
+    }
+
+    // Checks and takes the inputs as one step: false (and nothing taken) if any are short.
+    // On a SharedInventory this is a single atomic reserve, so other players can't take the
+    // materials between the check and the take
+    public boolean tryConsumeInputs(Inventory inventory, int units, boolean withCatalyst) {
+        if (inventory instanceof SharedInventory shared) {
+            return shared.tryConsume(this, units, withCatalyst);
+        }
+        if (!hasInputs(inventory, units, withCatalyst)) {
+            return false;
+        }
+        consumeInputs(inventory, units, withCatalyst);
+        return true;
+    }
+
+    // How many of 'units' attempts succeed; a single binomial draw for the whole batch
+    public int rollSuccesses(RandomGenerator rng, int units, boolean alwaysSuccessful) {
+        return alwaysSuccessful ? units : Binomial.sample(rng, units, successRate);
+    }
+
+    // Adds the output of 'successes' crafts to the Inventory; returns the number of units produced
+    public int deliver(Inventory inventory, int successes, boolean withCatalyst) {
+        int produced = successes * (withCatalyst && hasCatalyst() ? catalystMultiplier : 1);
+        switch (output) {
+            case STRUCTURE -> {
+                if (produced > 0) inventory.registerStructure(name);
+            }
+            case ITEM -> {
+                for (int i = 0; i < produced; i++) {
+                    addItemTo(inventory);
+                }
+            }
+            case MATERIAL -> {
+                if (produced > 0) inventory.addRawMaterial(name, produced);
+            }
+        }
+        return produced;
+    }
+
+    // Adds one crafted item of this recipe. A JournaledInventory is told the recipe too, so it
+    // knows what it holds by name
+    public void addItemTo(Inventory inventory) {
+        CraftedItem item = new CraftedItem(name, description);
+        if (inventory instanceof JournaledInventory journaled) {
+            journaled.addCraftedItem(item, this);
+        } else {
+            inventory.addCraftedItem(item);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Every recipe in the game, written down once.
+// Also indexed by material, so a change to one material only touches the recipes that use it.
+public final class RecipeBook {
+    // --- Workbench (Create menu) ---
+    public static final Recipe FURNACE = new Recipe("Furnace", "Permanent Structure", Recipe.Output.STRUCTURE, 70,
+            "Failure! The furnace collapsed during construction. Materials lost.",
+            MaterialRegistry.STONE, 3);
+    public static final Recipe ALCHEMY_TABLE = new Recipe("Alchemy Table", "Permanent Structure", Recipe.Output.STRUCTURE, 70,
+            "Failure! The table shattered during assembly. Materials lost.",
+            MaterialRegistry.WOOD, 1, MaterialRegistry.STONE, 1, MaterialRegistry.PAINITE, 1);
+    public static final Recipe WOODEN_BATEA = new Recipe("Wooden Batea", "Reusable Tool for Gold Panning", Recipe.Output.ITEM, 70,
+            "Failure! The wood split badly. Materials lost.",
+            MaterialRegistry.WOOD, 3);
+    public static final Recipe SPEAR = new Recipe("Spear", "Consumable Weapon for Hunting", Recipe.Output.ITEM, 70,
+            "Failure! The stone broke when you tried to bind it. Materials lost.",
+            MaterialRegistry.WOOD, 1, MaterialRegistry.STONE, 1);
+
+    // --- Alchemy Table ---
+    public static final Recipe ALCOHOL = new Recipe("Alcohol", "Fermented Grapes", Recipe.Output.MATERIAL, 100,
+            "",
+            MaterialRegistry.GRAPES, 1);
+    // Platinum is an optional catalyst that doubles the potions made
+    public static final Recipe REVIVAL_POTION = new Recipe("Revival Potion", "Revives a character", Recipe.Output.ITEM, 70,
+            "Failure! The mixture boiled over. Materials lost.",
+            MaterialRegistry.NITRIC_ACID, 1, MaterialRegistry.ALCOHOL, 1)
+            .withCatalyst(MaterialRegistry.PLATINUM, 2);
+
+    // Recipes per crafting station, in menu order
+    public static final List<Recipe> WORKBENCH = List.of(FURNACE, ALCHEMY_TABLE, WOODEN_BATEA, SPEAR);
+    public static final List<Recipe> ALCHEMY = List.of(ALCOHOL, REVIVAL_POTION);
+    public static final List<Recipe> ALL = List.of(FURNACE, ALCHEMY_TABLE, WOODEN_BATEA, SPEAR, ALCOHOL, REVIVAL_POTION);
+
+    private static final Map<String, Recipe> BY_NAME = new HashMap<>();    // Lower-case name/alias -> recipe
+    private static final List<List<Recipe>> BY_MATERIAL = new ArrayList<>(); // Material id -> recipes using it
+
+    static {
+        for (Recipe recipe : ALL) {
+            BY_NAME.put(recipe.name.toLowerCase(), recipe);
+        }
+        // Short names the menus have always accepted
+        BY_NAME.put("alchemy", ALCHEMY_TABLE);
+        BY_NAME.put("batea", WOODEN_BATEA);
+
+        for (int id = 0; id < MaterialRegistry.size(); id++) {
+            List<Recipe> users = new ArrayList<>();
+            for (Recipe recipe : ALL) {
+                if (recipe.uses(id)) users.add(recipe);
+            }
+            BY_MATERIAL.add(List.copyOf(users));
+        }
+    }
+
+    private RecipeBook() {}
+
+    // Recipe by (case-insensitive) name or alias, or null if there is none
+    public static Recipe find(String name) {
+        return BY_NAME.get(name.trim().toLowerCase());
+    }
+
+    // Recipes that consume a material, as input or catalyst
+    public static List<Recipe> usedBy(int materialId) {
+        return materialId < BY_MATERIAL.size() ? BY_MATERIAL.get(materialId) : List.of();
+    }
+}
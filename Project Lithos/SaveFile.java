@@ -0,0 +1,188 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToIntFunction;
+
+// Compact, versioned binary save format for GameSnapshot.
+//
+// Layout (big-endian):
+//   int   magic 'LITH'
+//   short version
+//   int   currentDay
+//   short explorationsLeft
+//   byte  weather ordinal
+//   int   platinumChance
+//   short fullness
+//   short flags (GameSnapshot bits)
+//   long  Deep Sea tracker (DeepSeaTracker bits; version 2 on, 0 when reading version 1)
+//   short material entry count, then per non-zero material:
+//         byte name length, UTF-8 name bytes, int count
+//   short crafted item entry count, then per kind held (version 3 on, none when reading older saves):
+//         byte name length, UTF-8 name bytes, int count
+//
+// Materials and crafted items are stored by name, not registry id, because ids depend on
+// registration order.
+// Tracker bits are Deep Sea drop table slots, which are ordered by name and don't.
+public final class SaveFile {
+    private static final int MAGIC = 0x4C495448; // "LITH"
+    public static final short VERSION = 3;
+
+    private SaveFile() {}
+
+    // Writes the snapshot to a file: encoded into one buffer, written through a FileChannel,
+    // then moved over the old save so a crash never leaves a half-written file behind
+    public static void write(Path path, GameSnapshot snapshot) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(snapshot));
+        encode(snapshot, buffer);
+        buffer.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads a whole save into one buffer through a FileChannel. Not memory-mapped: a mapping
+    // stays open until it is garbage collected, and would block the next save's move over the
+    // file on some systems
+    public static GameSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Not a Project Lithos save file (" + size + " bytes).");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break; // Shrunk while reading; decode reports the short file
+            }
+            buffer.flip();
+            return decode(buffer);
+        }
+    }
+
+    // Exact number of bytes encode() will write
+    public static int encodedSize(GameSnapshot snapshot) {
+        int size = 4 + 2 + 4 + 2 + 1 + 4 + 2 + 2 + 8 + 2;
+        for (int id = 0; id < snapshot.materialSlots(); id++) {
+            if (snapshot.getMaterialCount(id) != 0) {
+                size += 1 + nameBytes(MaterialRegistry.nameOf(id)).length + 4;
+            }
+        }
+        size += 2;
+        for (int kind = 0; kind < snapshot.craftedItemSlots(); kind++) {
+            if (snapshot.getCraftedItemCount(kind) != 0) {
+                size += 1 + nameBytes(CraftedItemRegistry.nameOf(kind)).length + 4;
+            }
+        }
+        return size;
+    }
+
+    // Encodes into a caller-supplied buffer, e.g. one reused for in-memory checkpoints
+    public static void encode(GameSnapshot snapshot, ByteBuffer out) {
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putInt(snapshot.currentDay);
+        out.putShort((short) snapshot.explorationsLeft);
+        out.put((byte) snapshot.weather.ordinal());
+        out.putInt(snapshot.platinumChance);
+        out.putShort((short) snapshot.fullness);
+        out.putShort((short) snapshot.flags);
+        out.putLong(snapshot.deepSeaTracker);
+
+        int entries = 0;
+        for (int id = 0; id < snapshot.materialSlots(); id++) {
+            if (snapshot.getMaterialCount(id) != 0) entries++;
+        }
+        out.putShort((short) entries);
+        for (int id = 0; id < snapshot.materialSlots(); id++) {
+            int count = snapshot.getMaterialCount(id);
+            if (count != 0) {
+                byte[] name = nameBytes(MaterialRegistry.nameOf(id));
+                out.put((byte) name.length);
+                out.put(name);
+                out.putInt(count);
+            }
+        }
+
+        int kinds = 0;
+        for (int kind = 0; kind < snapshot.craftedItemSlots(); kind++) {
+            if (snapshot.getCraftedItemCount(kind) != 0) kinds++;
+        }
+        out.putShort((short) kinds);
+        for (int kind = 0; kind < snapshot.craftedItemSlots(); kind++) {
+            int count = snapshot.getCraftedItemCount(kind);
+            if (count != 0) {
+                byte[] name = nameBytes(CraftedItemRegistry.nameOf(kind));
+                out.put((byte) name.length);
+                out.put(name);
+                out.putInt(count);
+            }
+        }
+    }
+
+    // Decodes a snapshot starting at the buffer's position
+    public static GameSnapshot decode(ByteBuffer in) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a Project Lithos save file.");
+            }
+            short version = in.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported save version " + version + " (expected 1 to " + VERSION + ").");
+            }
+
+            int currentDay = in.getInt();
+            int explorationsLeft = in.getShort();
+            int weatherOrdinal = in.get();
+            int platinumChance = in.getInt();
+            int fullness = in.getShort();
+            int flags = in.getShort() & 0xFFFF;
+            long deepSeaTracker = version >= 2 ? in.getLong() : 0;
+            if (weatherOrdinal < 0 || weatherOrdinal >= Weather.values().length) {
+                throw new IOException("Corrupt save: unknown weather " + weatherOrdinal + ".");
+            }
+
+            int[] materials = decodeCounts(in, MaterialRegistry.size(), MaterialRegistry::intern);
+            int[] craftedItems = version >= 3 ? decodeCounts(in, 0, CraftedItemRegistry::intern) : new int[0];
+            return new GameSnapshot(currentDay, explorationsLeft, Weather.values()[weatherOrdinal],
+                    platinumChance, fullness, flags, deepSeaTracker, materials, craftedItems);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt save: file ends early.", e);
+        }
+    }
+
+    // One "entry count, then name and count per entry" section, as counts by registry id
+    private static int[] decodeCounts(ByteBuffer in, int minSlots, ToIntFunction<String> registry) {
+        int entries = in.getShort() & 0xFFFF;
+        int[] ids = new int[entries];
+        int[] counts = new int[entries];
+        int slots = minSlots;
+        for (int i = 0; i < entries; i++) {
+            byte[] name = new byte[in.get() & 0xFF];
+            in.get(name);
+            ids[i] = registry.applyAsInt(new String(name, StandardCharsets.UTF_8));
+            counts[i] = in.getInt();
+            slots = Math.max(slots, ids[i] + 1);
+        }
+
+        int[] result = new int[slots];
+        for (int i = 0; i < entries; i++) {
+            result[ids[i]] = counts[i];
+        }
+        return result;
+    }
+
+    private static byte[] nameBytes(String name) {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+}
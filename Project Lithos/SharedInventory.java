@@ -0,0 +1,239 @@
+// Inventory for a world several players use at the same time (co-op). Nothing in the game
+// creates one yet (the console game and GameServer give every player their own Inventory);
+// it is the building block for hosting one world to several sessions.
+//
+// Materials live in a ConcurrentMaterialCounts, and every material read and write goes
+// there alone: no locks, so players working with different materials never wait for each
+// other, and tryConsume takes several materials (a recipe's inputs) all or nothing, so two
+// players can never both spend the same Stone. The two Inventory rules that apply to adding
+// materials are kept here the same way WorldState keeps them: Kino's doubling (setDoubleEffect)
+// and a Map Fragment revealing the Cave.
+//
+// Every other inherited method (the screens, using a crafted item, clearing) is Inventory's own
+// code, so it runs one caller at a time under this object's lock: Inventory's store is first
+// brought up to the counters, and whatever the method changed there is added back to them
+// afterwards. Those are menu actions, not the hot path. The Deep Sea tracker is a lock-free
+// DeepSeaTracker.
+public class SharedInventory extends Inventory {
+    private static final int MAP_FRAGMENT = MaterialRegistry.intern("Map Fragment");
+
+    // Set once Inventory's constructor has run; calls it makes to the overrides go to Inventory alone
+    private final ConcurrentMaterialCounts materials;
+    private final DeepSeaTracker deepSea;
+    private volatile boolean doubleEffect; // Kino's doubling of every material added
+
+    // True while Inventory's own code runs: its calls back into the overrides go to its store alone
+    private boolean inInventory;
+
+    public SharedInventory(GameState gameState) {
+        super(gameState);
+        materials = new ConcurrentMaterialCounts();
+        deepSea = new DeepSeaTracker();
+        synchronized (this) {
+            copyChanges(new int[0]); // Anything Inventory's constructor put in its store
+        }
+    }
+
+    public DeepSeaTracker getDeepSeaTracker() {
+        return deepSea;
+    }
+
+    // --- Materials: the counters alone, lock-free ---
+
+    @Override
+    public int getMaterialCount(String name) {
+        return inventoryOnly() ? super.getMaterialCount(name) : materials.getMaterialCount(name);
+    }
+
+    @Override
+    public boolean hasMaterial(String name) {
+        return inventoryOnly() ? super.hasMaterial(name) : materials.hasMaterial(name);
+    }
+
+    @Override
+    public void addRawMaterial(String name, int amount) {
+        if (inventoryOnly()) {
+            super.addRawMaterial(name, amount);
+            return;
+        }
+        int id = MaterialRegistry.intern(name);
+        materials.addRawMaterial(id, doubleEffect ? amount * 2 : amount);
+        if (id == MAP_FRAGMENT) {
+            GameState gameState = getGameState();
+            if (gameState != null && !gameState.hasMapFragment()) {
+                gameState.setHasMapFragment(true); // Picking up a Map Fragment reveals the Cave
+            }
+        }
+    }
+
+    @Override
+    public boolean useMaterial(String name) {
+        return useMaterial(name, 1);
+    }
+
+    @Override
+    public boolean useMaterial(String name, int amount) {
+        if (inventoryOnly()) {
+            return super.useMaterial(name, amount);
+        }
+        return materials.useMaterial(name, amount);
+    }
+
+    // Takes amounts[i] of ids[i] for every i, or nothing at all if any of them is short
+    public boolean tryConsume(int[] ids, int[] amounts) {
+        return materials.tryConsume(ids, amounts);
+    }
+
+    // A recipe's inputs for 'units' crafts (plus its catalyst if wanted), all or nothing
+    public boolean tryConsume(Recipe recipe, int units, boolean withCatalyst) {
+        return materials.tryConsume(recipe, units, withCatalyst);
+    }
+
+    @Override
+    public void setDoubleEffect(boolean on) {
+        doubleEffect = on;
+        inInventory(() -> super.setDoubleEffect(on));
+    }
+
+    // --- Everything else: Inventory's own code, one caller at a time ---
+
+    @Override
+    public void showInventory() {
+        inInventory(super::showInventory);
+    }
+
+    @Override
+    public void processToolsAndFood() {
+        inInventory(super::processToolsAndFood);
+    }
+
+    @Override
+    public void clearInventory() {
+        inInventory(super::clearInventory);
+        if (deepSea != null) deepSea.reset();
+    }
+
+    @Override
+    public void addCraftedItem(CraftedItem item) {
+        inInventory(() -> super.addCraftedItem(item));
+    }
+
+    @Override
+    public void useCraftedItem(int index) {
+        inInventory(() -> super.useCraftedItem(index));
+    }
+
+    @Override
+    public void removeRandomCraftedItem() {
+        inInventory(super::removeRandomCraftedItem);
+    }
+
+    @Override
+    public void decreaseFullness() {
+        inInventory(super::decreaseFullness);
+    }
+
+    @Override
+    public void registerStructure(String name) {
+        inInventory(() -> super.registerStructure(name));
+    }
+
+    @Override
+    public synchronized int getCraftedItemCount() {
+        return super.getCraftedItemCount();
+    }
+
+    @Override
+    public synchronized int getFullnessLevel() {
+        return super.getFullnessLevel();
+    }
+
+    @Override
+    public synchronized boolean hasFurnace() {
+        return super.hasFurnace();
+    }
+
+    @Override
+    public synchronized boolean hasAlchemyTable() {
+        return super.hasAlchemyTable();
+    }
+
+    @Override
+    public void addDeepSeaItemFound(String item) {
+        if (deepSea == null) super.addDeepSeaItemFound(item);
+        else deepSea.add(item);
+    }
+
+    @Override
+    public int getUniqueDeepSeaItemsCount() {
+        return deepSea == null ? super.getUniqueDeepSeaItemsCount() : deepSea.uniqueCount();
+    }
+
+    @Override
+    public void resetDeepSeaItemTracker() {
+        if (deepSea == null) super.resetDeepSeaItemTracker();
+        else deepSea.reset();
+    }
+
+    // Runs an inherited method under the lock on a store brought up to the counters, then adds
+    // whatever it changed in the store to the counters
+    private synchronized void inInventory(Runnable call) {
+        if (inventoryOnly()) {
+            call.run();
+            return;
+        }
+        int[] before = new int[MaterialRegistry.size()];
+        inStore(() -> {
+            super.setDoubleEffect(false); // Copying counts in must not double them
+            for (int id = 0; id < before.length; id++) {
+                String name = MaterialRegistry.nameOf(id);
+                int difference = materials.getMaterialCount(id) - super.getMaterialCount(name);
+                if (difference > 0) super.addRawMaterial(name, difference);
+                else if (difference < 0) super.useMaterial(name, -difference);
+                before[id] = super.getMaterialCount(name);
+            }
+            super.setDoubleEffect(doubleEffect);
+        });
+        try {
+            inStore(call);
+        } finally {
+            copyChanges(before);
+        }
+    }
+
+    // Runs Inventory's own code on its store alone (with the lock held)
+    private void inStore(Runnable call) {
+        boolean outer = inInventory;
+        inInventory = true;
+        try {
+            call.run();
+        } finally {
+            inInventory = outer;
+        }
+    }
+
+    // Amount in Inventory's store (with the lock held)
+    private int storeCount(String name) {
+        boolean outer = inInventory;
+        inInventory = true;
+        try {
+            return super.getMaterialCount(name);
+        } finally {
+            inInventory = outer;
+        }
+    }
+
+    // True during Inventory's constructor, and on the thread running an inherited method
+    private boolean inventoryOnly() {
+        return materials == null || Thread.holdsLock(this) && inInventory;
+    }
+
+    // Adds the difference between Inventory's store and 'before' (0 past its end) to the counters
+    // (with the lock held)
+    private void copyChanges(int[] before) {
+        for (int id = 0; id < MaterialRegistry.size(); id++) {
+            int change = storeCount(MaterialRegistry.nameOf(id)) - (id < before.length ? before[id] : 0);
+            if (change != 0) materials.addRawMaterial(id, change);
+        }
+    }
+}
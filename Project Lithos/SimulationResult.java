@@ -0,0 +1,53 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Aggregated outcome of a headless ExpeditionSimulator run
+public class SimulationResult {
+    private final Place place;
+    private final long expeditions;       // Expeditions simulated
+    private final long hazards;           // Expeditions lost to a hazard
+    private final long emptyExpeditions;  // Expeditions that found nothing
+    private final Map<String, Long> materialCounts = new LinkedHashMap<>(); // Material -> total found
+
+    public SimulationResult(Place place, long expeditions, long hazards, long emptyExpeditions,
+                            String[] materials, long[] counts) {
+        this.place = place;
+        this.expeditions = expeditions;
+        this.hazards = hazards;
+        this.emptyExpeditions = emptyExpeditions;
+        for (int i = 0; i < materials.length; i++) {
+            materialCounts.merge(materials[i], counts[i], Long::sum);
+        }
+    }
+
+    public Place getPlace() { return place; }
+    public long getExpeditions() { return expeditions; }
+    public long getHazards() { return hazards; }
+    public long getEmptyExpeditions() { return emptyExpeditions; }
+
+    // Read-only view of every material's total
+    public Map<String, Long> getMaterialCounts() {
+        return Collections.unmodifiableMap(materialCounts);
+    }
+
+    // Total found for one material (0 if it never drops here)
+    public long getCount(String material) {
+        return materialCounts.getOrDefault(material, 0L);
+    }
+
+    // Average amount of a material per expedition
+    public double perExpedition(String material) {
+        return expeditions == 0 ? 0.0 : (double) getCount(material) / expeditions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(place.name).append(": ").append(expeditions).append(" expeditions, ")
+          .append(hazards).append(" hazards, ").append(emptyExpeditions).append(" empty\n");
+        materialCounts.forEach((material, count) ->
+                sb.append(String.format("  %-15s %12d  (%.4f per expedition)%n", material, count, perExpedition(material))));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,16 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event for a night's sleep: the new day and its weather
+@Name("lithos.Sleep")
+@Label("Sleep")
+@Category("Project Lithos")
+public class SleepEvent extends Event {
+    @Label("Day")
+    int day;
+
+    @Label("Weather")
+    String weather;
+}
@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+// Smoke timings for the game's hot paths, with no build tool or library needed. They are not
+// benchmarks: everything runs in one JVM, one after another, with no forks, no blackhole and
+// no control over JIT profile pollution, so the numbers are only good for spotting a large
+// slowdown or a new allocation on this machine. Anything finer needs a real harness (JMH).
+// Each timing runs warmup iterations, then timed iterations, reporting throughput (ops/s,
+// mean ± standard deviation) and allocation (bytes/op, from the thread's allocation counter).
+//
+//   java SmokeTimings                                run everything
+//   java SmokeTimings --filter=dropTable             only timings whose name contains "dropTable"
+//   java SmokeTimings --save=baseline.tsv            keep the results as a baseline
+//   java SmokeTimings --baseline=baseline.tsv        compare; exits with 1 on a large regression
+//
+// Other options: --warmup=<iterations> --iterations=<n> --time=<ms per iteration> --tolerance=<percent>
+public final class SmokeTimings {
+    // Ops run between clock checks, so reading the clock doesn't dominate fast timings
+    private static final int BATCH = 1024;
+    // Allocation below this many bytes/op is noise (counter granularity, TLAB refills)
+    private static final double ALLOCATION_SLACK = 16.0;
+
+    private final Map<String, LongSupplier> timings = new LinkedHashMap<>();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded into here so the JIT can't drop the measured work
+    private static volatile long sink;
+
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationMillis = 1000;
+    private double tolerancePercent = 10.0;
+
+    // One line of the report
+    private static final class Result {
+        final String name;
+        final double opsPerSecond;
+        final double error;         // Standard deviation across iterations
+        final double bytesPerOp;
+
+        Result(String name, double opsPerSecond, double error, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.error = error;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    // Output sink for game code under test: drops all text and events
+    private static final class DiscardIO implements GameIO {
+        @Override
+        public String readLine() {
+            throw new java.util.NoSuchElementException("SmokeTimings give no input.");
+        }
+
+        @Override
+        public void print(String text) {}
+
+        @Override
+        public void println(String text) {}
+
+        @Override
+        public void emit(GameEvent event) {}
+    }
+
+    public static void main(String[] args) throws IOException {
+        SmokeTimings bench = new SmokeTimings();
+        String filter = "";
+        Path save = null;
+        Path baseline = null;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--filter=")) filter = value;
+            else if (arg.startsWith("--save=")) save = Paths.get(value);
+            else if (arg.startsWith("--baseline=")) baseline = Paths.get(value);
+            else if (arg.startsWith("--warmup=")) bench.warmupIterations = Integer.parseInt(value);
+            else if (arg.startsWith("--iterations=")) bench.iterations = Integer.parseInt(value);
+            else if (arg.startsWith("--time=")) bench.iterationMillis = Long.parseLong(value);
+            else if (arg.startsWith("--tolerance=")) bench.tolerancePercent = Double.parseDouble(value);
+            else throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+
+        bench.register();
+        List<Result> results = bench.runMatching(filter);
+
+        if (save != null) {
+            writeResults(save, results);
+            System.out.println("\nSaved " + results.size() + " results to " + save);
+        }
+        if (baseline != null && bench.compare(readResults(baseline), results) > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Every timing, by name. Each one sets up its own game objects once and returns one op
+    private void register() {
+        // Loot rolls for every place and weather; Deep Sea Shore goes through the gacha
+        for (Place place : Place.values()) {
+            for (Weather weather : Weather.values()) {
+                DropTable dropTable = new DropTable(newGame().getInventory());
+                List<String> found = new ArrayList<>();
+                String name = place == Place.DEEP_SEA_SHORE ? "dropTable.deepSeaGacha" : "dropTable.getMaterials";
+                timings.put(name + "/" + place.name() + "/" + weather.name(),
+                        () -> {
+                            dropTable.getMaterials(place, 65, weather.multiplier, found);
+                            return found.size();
+                        });
+            }
+        }
+
+        DropTable hazards = new DropTable(newGame().getInventory());
+        timings.put("dropTable.checkHazard", () -> hazards.checkHazard() ? 1 : 0);
+
+        // Workbench: menu rendering and crafting (materials are topped up so every op does real work)
+        Inventory craftInventory = newGame().getInventory();
+        craftInventory.addRawMaterial("Wood", 1_000);
+        craftInventory.addRawMaterial("Stone", 1_000);
+        Create create = new Create(craftInventory);
+        timings.put("create.showCraftable", () -> {
+            create.showCraftable();
+            return 1;
+        });
+        timings.put("create.craftBatch/spear x1", () -> {
+            craftInventory.addRawMaterial("Wood", 1);
+            craftInventory.addRawMaterial("Stone", 1);
+            return create.craftBatch("spear", 1);
+        });
+        timings.put("create.craftBatch/spear x100", () -> {
+            craftInventory.addRawMaterial("Wood", 100);
+            craftInventory.addRawMaterial("Stone", 100);
+            return create.craftBatch("spear", 100);
+        });
+        // Inventory screen from its view model: an unchanged redraw, and a redraw after a change
+        JournaledInventory viewed = new JournaledInventory(newGame());
+        viewed.addRawMaterial("Wood", 5);
+        viewed.addRawMaterial("Stone", 5);
+        InventoryView view = viewed.getView();
+        timings.put("inventoryView.screen", () -> view.screen().length());
+        timings.put("inventoryView.screen/changed", () -> {
+            viewed.addRawMaterial("Wood", 1);
+            return view.screen().length();
+        });
+        timings.put("recipe.hasInputs/spear", () -> RecipeBook.SPEAR.hasInputs(craftInventory, 1, false) ? 1 : 0);
+
+        // Alchemy Table batch paths
+        Inventory alchemyInventory = newGame().getInventory();
+        AlchemyTable alchemyTable = new AlchemyTable(alchemyInventory);
+        timings.put("alchemyTable.processGrapes x1", () -> {
+            alchemyInventory.addRawMaterial("Grapes", 1);
+            return alchemyTable.processGrapes(1);
+        });
+        timings.put("alchemyTable.mixRevivalPotions x10", () -> {
+            alchemyInventory.addRawMaterial("Nitric Acid", 10);
+            alchemyInventory.addRawMaterial("Alcohol", 10);
+            return alchemyTable.mixRevivalPotions(10, false);
+        });
+
+        // Inventory material bookkeeping, next to the id-indexed MaterialCounts it can delegate to
+        Inventory inventory = newGame().getInventory();
+        timings.put("inventory.addRawMaterial", () -> {
+            inventory.addRawMaterial("Stone", 1);
+            return 1;
+        });
+        timings.put("inventory.add+useMaterial", () -> {
+            inventory.addRawMaterial("Wood", 1);
+            return inventory.useMaterial("Wood") ? 1 : 0;
+        });
+        timings.put("inventory.getMaterialCount", () -> inventory.getMaterialCount("Stone"));
+
+        MaterialCounts counts = new MaterialCounts();
+        timings.put("materialCounts.add+useMaterial", () -> {
+            counts.addRawMaterial(MaterialRegistry.WOOD, 1);
+            return counts.useMaterial(MaterialRegistry.WOOD, 1) ? 1 : 0;
+        });
+        timings.put("materialCounts.getMaterialCount", () -> counts.getMaterialCount(MaterialRegistry.STONE));
+
+        // Headless crafting, which stages through a WorldTransaction, and a bare stage + commit
+        WorldState world = new WorldState(GameSnapshot.capture(newGame()));
+        SplittableRandom worldRng = new SplittableRandom(7);
+        timings.put("worldState.craft/spear", () -> {
+            world.addRawMaterial(MaterialRegistry.WOOD, 1);
+            world.addRawMaterial(MaterialRegistry.STONE, 1);
+            return world.craft(RecipeBook.SPEAR, false, worldRng);
+        });
+        WorldTransaction transaction = new WorldTransaction(world);
+        timings.put("worldTransaction.stage+commit", () -> {
+            transaction.begin();
+            transaction.addRawMaterial(MaterialRegistry.WOOD, 1);
+            transaction.useMaterial(MaterialRegistry.WOOD, 1);
+            transaction.decrementExploration();
+            return transaction.commit() ? 1 : 0;
+        });
+
+        // One lockstep step of 1024 environments: explore round the first three places, sleep every 12th step
+        VectorEnv env = new VectorEnv(GameSnapshot.capture(newGame()), 1024, 30);
+        int[] observations = new int[env.lanes() * LithosEnv.OBSERVATION_SIZE];
+        int[] actions = new int[env.lanes()];
+        float[] rewards = new float[env.lanes()];
+        boolean[] dones = new boolean[env.lanes()];
+        env.reset(11, observations);
+        int[] envSteps = new int[1];
+        timings.put("vectorEnv.step x1024", () -> {
+            int step = envSteps[0]++;
+            for (int lane = 0; lane < actions.length; lane++) {
+                actions[lane] = step % 12 == 11 ? LithosEnv.SLEEP : LithosEnv.EXPLORE + lane % 3;
+            }
+            env.step(actions, observations, rewards, dones);
+            return observations[LithosEnv.OBS_DAY];
+        });
+
+        // Batch rules over a struct-of-arrays pool: 4096 worlds explore once, then sleep when out of attempts
+        WorldPool worlds = new WorldPool(4096);
+        worlds.fill(GameSnapshot.capture(newGame()), 0, worlds.capacity());
+        worlds.seed(13, 0, worlds.capacity());
+        timings.put("worldPool.explore x4096", () -> {
+            worlds.explore(0, worlds.capacity(), Place.RIVER, null);
+            if (worlds.getExplorationsLeft(0) == 0) worlds.sleep(0, worlds.capacity(), IndependentWeather.STANDARD);
+            return worlds.getDay(0);
+        });
+
+        // Weather roll, with a fresh java.util.Random as the game does and with a reused RNG
+        timings.put("weather.generate", () -> Weather.generate().ordinal());
+        SplittableRandom rng = new SplittableRandom(42);
+        timings.put("weather.generate(rng)", () -> Weather.generate(rng).ordinal());
+    }
+
+    // A fresh game wired like Main does, with all output discarded
+    private static GameState newGame() {
+        GameState gameState = new GameState(null);
+        gameState.setIO(new DiscardIO());
+        gameState.setInventory(new Inventory(gameState));
+        return gameState;
+    }
+
+    private List<Result> runMatching(String filter) {
+        System.out.println("Smoke timings: one JVM, no forks; only large differences mean anything.");
+        System.out.printf("%-52s %16s %12s %12s%n", "Timing", "ops/s", "error", "B/op");
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, LongSupplier> entry : timings.entrySet()) {
+            if (entry.getKey().contains(filter)) {
+                Result result = measure(entry.getKey(), entry.getValue());
+                System.out.printf("%-52s %16.0f %12.0f %12.1f%n",
+                        result.name, result.opsPerSecond, result.error, result.bytesPerOp);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    // Warmup, then timed iterations; allocation is counted over the timed iterations only
+    private Result measure(String name, LongSupplier op) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(op, new long[1]);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        double[] scores = new double[iterations];
+        long totalOps = 0;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            long[] ops = new long[1];
+            long nanos = iteration(op, ops);
+            scores[i] = ops[0] * 1e9 / nanos;
+            totalOps += ops[0];
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        double mean = 0;
+        for (double score : scores) mean += score;
+        mean /= iterations;
+        double variance = 0;
+        for (double score : scores) variance += (score - mean) * (score - mean);
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+
+        return new Result(name, mean, error, totalOps == 0 ? 0 : (double) bytes / totalOps);
+    }
+
+    // Runs batches of ops until the iteration time is used up. Returns elapsed nanos, ops in ops[0]
+    private long iteration(LongSupplier op, long[] ops) {
+        long deadline = iterationMillis * 1_000_000L;
+        long start = System.nanoTime();
+        long elapsed;
+        long acc = 0;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                acc += op.getAsLong();
+            }
+            ops[0] += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < deadline);
+        sink += acc;
+        return elapsed;
+    }
+
+    // Prints every timing that got slower or allocates more than the baseline. Returns how many did
+    private int compare(Map<String, Result> baseline, List<Result> results) {
+        System.out.println("\nAgainst baseline (tolerance " + tolerancePercent + "%):");
+        int regressions = 0;
+        for (Result result : results) {
+            Result before = baseline.get(result.name);
+            if (before == null) {
+                System.out.println("  new        " + result.name);
+                continue;
+            }
+            double change = (result.opsPerSecond - before.opsPerSecond) / before.opsPerSecond * 100;
+            boolean slower = change < -tolerancePercent;
+            boolean allocates = result.bytesPerOp > before.bytesPerOp * (1 + tolerancePercent / 100) + ALLOCATION_SLACK;
+            if (slower || allocates) regressions++;
+            System.out.printf("  %-10s %-52s %+7.1f%% ops/s, %.1f -> %.1f B/op%n",
+                    slower || allocates ? "REGRESSED" : "ok", result.name, change, before.bytesPerOp, result.bytesPerOp);
+        }
+        System.out.println(regressions == 0 ? "No regressions." : regressions + " regression(s).");
+        return regressions;
+    }
+
+    // Results file: one "name<TAB>ops/s<TAB>error<TAB>bytes/op" line per timing
+    private static void writeResults(Path path, List<Result> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Result result : results) {
+            lines.add(result.name + "\t" + result.opsPerSecond + "\t" + result.error + "\t" + result.bytesPerOp);
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Result> readResults(Path path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (fields.length == 4) {
+                results.put(fields[0], new Result(fields[0], Double.parseDouble(fields[1]),
+                        Double.parseDouble(fields[2]), Double.parseDouble(fields[3])));
+            }
+        }
+        return results;
+    }
+}
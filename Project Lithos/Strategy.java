@@ -0,0 +1,26 @@
+// An automated player for FastForward. Every decision sees the current headless WorldState.
+// Strategies used with FastForward.runMany are created once per run, so they may keep state.
+public interface Strategy {
+    // Where to explore next, or null to stop and sleep for the rest of the day
+    Place nextExploration(WorldState state);
+
+    // Recipe to attempt before the next exploration, or null to craft nothing (asked until null)
+    default Recipe nextCraft(WorldState state) {
+        return null;
+    }
+
+    // Whether to spend the optional catalyst (Platinum for Revival Potions) on this craft
+    default boolean useCatalyst(WorldState state, Recipe recipe) {
+        return recipe.hasCatalyst();
+    }
+
+    // Asked when today's explorations run out: eat a Cooked Meat to reset them?
+    default boolean eatCookedMeat(WorldState state) {
+        return false;
+    }
+
+    // Explores one place every time, never crafts or eats
+    static Strategy always(Place place) {
+        return state -> place;
+    }
+}
@@ -0,0 +1,72 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+// Adapter over any pair of text streams: a socket connection, or in-process pipes.
+// Output is buffered and sent when the game waits for input, so each prompt is one write.
+public final class StreamIO implements GameIO {
+    private final BufferedReader in;
+    private final Writer out;
+
+    public StreamIO(InputStream in, OutputStream out) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8), new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public StreamIO(Reader in, Writer out) {
+        this.in = new BufferedReader(in);
+        this.out = new BufferedWriter(out);
+    }
+
+    @Override
+    public String readLine() {
+        try {
+            flush();
+            String line = in.readLine();
+            if (line == null) {
+                throw new NoSuchElementException("The player disconnected.");
+            }
+            return line;
+        } catch (IOException e) {
+            // A broken connection ends the session like closed input does
+            throw new NoSuchElementException("Connection lost: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void print(String text) {
+        write(text);
+    }
+
+    @Override
+    public void println(String text) {
+        write(text);
+        write(System.lineSeparator());
+    }
+
+    @Override
+    public void emit(GameEvent event) {
+        // Remote players only see the text
+    }
+
+    // Sends any buffered output
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not send game output.", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+// Sends what a thread prints to System.out somewhere else. Some screens (Inventory's lists,
+// the Guide Book) still print straight to the console; a hosted session runs on its own
+// thread, so routing that thread's System.out to its GameIO puts them in front of the right
+// player. Other threads keep printing to the real console.
+//
+// The first use replaces System.out with a stream that looks up the current thread's target.
+public final class ThreadOutput {
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final ThreadLocal<Consumer<String>> TARGET = new ThreadLocal<>();
+    private static PrintStream console; // System.out before install()
+
+    private ThreadOutput() {}
+
+    // Runs the task with this thread's System.out text going to the port
+    public static void routeTo(GameIO io, Runnable task) {
+        if (io instanceof ConsoleIO) {
+            task.run(); // Already the console; routing would print to itself
+            return;
+        }
+        run(io::print, task);
+    }
+
+    // Runs the task and returns what it printed to System.out on this thread
+    public static String capture(Runnable task) {
+        StringBuilder text = new StringBuilder();
+        run(text::append, task);
+        return text.toString();
+    }
+
+    private static void run(Consumer<String> target, Runnable task) {
+        install();
+        Consumer<String> previous = TARGET.get();
+        TARGET.set(target);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) TARGET.remove();
+            else TARGET.set(previous);
+        }
+    }
+
+    private static synchronized void install() {
+        if (console != null) return;
+        console = System.out;
+        // PrintStream hands over whole encoded strings, so each write decodes on its own
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                Consumer<String> target = TARGET.get();
+                if (target == null) {
+                    console.write(b, off, len);
+                } else {
+                    target.accept(new String(b, off, len, CHARSET));
+                }
+            }
+
+            @Override
+            public void flush() {
+                if (TARGET.get() == null) console.flush();
+            }
+        }, true, CHARSET));
+    }
+}
@@ -0,0 +1,163 @@
+// Many LithosEnv games ("lanes") stepped in lockstep: step() takes one action per lane and
+// fills flat observation, reward and done arrays. A lane whose episode ends is reset on the
+// spot, so its observation is already the next episode's first one.
+//
+// The games live in a WorldPool (struct-of-arrays, one long of random state per lane), with
+// only the episode bookkeeping kept here, so stepping the whole batch walks a few dense
+// arrays and allocates nothing. Lane i after reset(seed) plays exactly like a LithosEnv reset
+// with seed + i, except for which crafted item a theft or hazard takes when several kinds are
+// held (uniform either way).
+public final class VectorEnv {
+    private final int lanes;
+    private final GameSnapshot start;
+    private final WeatherModel weatherModel;
+    private final int days;
+    private final WorldPool pool;
+    private final WorldPool.Streams rng;
+
+    // Episode bookkeeping, one entry per lane
+    private final int[] revived;           // Companion bits revived this episode
+    private final int[] steps;
+    private final int[] score;
+
+    public VectorEnv(GameSnapshot start, int lanes, int days) {
+        this(start, IndependentWeather.STANDARD, lanes, days);
+    }
+
+    public VectorEnv(GameSnapshot start, WeatherModel weatherModel, int lanes, int days) {
+        if (lanes <= 0 || days <= 0) {
+            throw new IllegalArgumentException("Need at least one lane and one day: " + lanes + " lanes, " + days + " days");
+        }
+        this.lanes = lanes;
+        this.start = start;
+        this.weatherModel = weatherModel;
+        this.days = days;
+        this.pool = new WorldPool(lanes);
+        this.rng = pool.streams();
+        revived = new int[lanes];
+        steps = new int[lanes];
+        score = new int[lanes];
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    // The lanes' games, for reading
+    public WorldPool getPool() {
+        return pool;
+    }
+
+    // Starts every lane over; lane i uses seed + i. Fills lanes * OBSERVATION_SIZE observations
+    public void reset(long seed, int[] observations) {
+        pool.seed(seed, 0, lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            resetLane(lane);
+            observe(lane, observations, lane * LithosEnv.OBSERVATION_SIZE);
+        }
+    }
+
+    // One action per lane. Fills each lane's observation, reward and done flag; done lanes are
+    // already reset when this returns
+    public void step(int[] actions, int[] observations, float[] rewards, boolean[] dones) {
+        if (actions.length < lanes || rewards.length < lanes || dones.length < lanes
+                || observations.length < lanes * LithosEnv.OBSERVATION_SIZE) {
+            throw new IllegalArgumentException("Arrays are too short for " + lanes + " lanes.");
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            steps[lane]++;
+            int action = actions[lane];
+            if (isLegal(lane, action)) {
+                apply(lane, action);
+            }
+            int before = score[lane];
+            score[lane] = score(lane);
+            rewards[lane] = score[lane] - before;
+            dones[lane] = pool.getDay(lane) >= start.currentDay + days || steps[lane] >= days * LithosEnv.MAX_STEPS_PER_DAY;
+            if (dones[lane]) {
+                resetLane(lane);
+            }
+            observe(lane, observations, lane * LithosEnv.OBSERVATION_SIZE);
+        }
+    }
+
+    // masks[lane * ACTIONS + a] = whether action a would do something in that lane
+    public void legalActions(boolean[] masks) {
+        for (int lane = 0; lane < lanes; lane++) {
+            for (int action = 0; action < LithosEnv.ACTIONS; action++) {
+                masks[lane * LithosEnv.ACTIONS + action] = isLegal(lane, action);
+            }
+        }
+    }
+
+    // --- One lane ---
+
+    private void resetLane(int lane) {
+        pool.fill(start, lane, lane + 1);
+        revived[lane] = 0;
+        steps[lane] = 0;
+        score[lane] = score(lane);
+    }
+
+    private void observe(int lane, int[] out, int offset) {
+        out[offset + LithosEnv.OBS_DAY] = pool.getDay(lane);
+        out[offset + LithosEnv.OBS_WEATHER] = pool.getWeather(lane).ordinal();
+        out[offset + LithosEnv.OBS_EXPLORATIONS] = pool.getExplorationsLeft(lane);
+        out[offset + LithosEnv.OBS_FULLNESS] = pool.getFullness(lane);
+        for (int i = 0; i < LithosEnv.FLAGS.length; i++) {
+            out[offset + LithosEnv.OBS_FLAGS + i] = pool.has(lane, LithosEnv.FLAGS[i]) ? 1 : 0;
+        }
+        out[offset + LithosEnv.OBS_DEEP_SEA] = Long.bitCount(pool.getDeepSeaTracker(lane));
+        for (int i = 0; i < LithosEnv.MATERIALS.length; i++) {
+            out[offset + LithosEnv.OBS_MATERIALS + i] = pool.materialAt(i, lane);
+        }
+        for (int i = 0; i < LithosEnv.CRAFTED.length; i++) {
+            out[offset + LithosEnv.OBS_CRAFTED + i] = pool.craftedAt(i, lane);
+        }
+    }
+
+    // Same checks as LithosEnv.isLegal
+    private boolean isLegal(int lane, int action) {
+        if (action < 0 || action >= LithosEnv.ACTIONS) return false;
+        if (action < LithosEnv.CRAFT) {
+            return pool.getExplorationsLeft(lane) > 0 && pool.canExplore(lane, LithosEnv.PLACES[action - LithosEnv.EXPLORE]);
+        }
+        if (action < LithosEnv.FERMENT) return pool.canCraft(lane, RecipeBook.WORKBENCH.get(action - LithosEnv.CRAFT), false);
+        if (action < LithosEnv.EAT_COOKED_MEAT) {
+            Recipe recipe = action == LithosEnv.FERMENT ? RecipeBook.ALCOHOL : RecipeBook.REVIVAL_POTION;
+            return pool.has(lane, GameSnapshot.ALCHEMY_TABLE) && pool.canCraft(lane, recipe, action == LithosEnv.MIX_POTION_PLATINUM);
+        }
+        if (action == LithosEnv.EAT_COOKED_MEAT) return pool.getMaterialCount(lane, MaterialRegistry.COOKED_MEAT) > 0;
+        if (action < LithosEnv.SLEEP) return pool.getCraftedItemCount(lane, LithosEnv.REVIVAL_POTION) > 0;
+        return true;
+    }
+
+    private void apply(int lane, int action) {
+        if (action < LithosEnv.CRAFT) {
+            pool.explore(lane, LithosEnv.PLACES[action - LithosEnv.EXPLORE], rng.at(lane));
+        } else if (action < LithosEnv.FERMENT) {
+            pool.craft(lane, RecipeBook.WORKBENCH.get(action - LithosEnv.CRAFT), false, rng.at(lane));
+        } else if (action == LithosEnv.FERMENT) {
+            pool.craft(lane, RecipeBook.ALCOHOL, false, rng.at(lane));
+        } else if (action == LithosEnv.MIX_POTION || action == LithosEnv.MIX_POTION_PLATINUM) {
+            pool.craft(lane, RecipeBook.REVIVAL_POTION, action == LithosEnv.MIX_POTION_PLATINUM, rng.at(lane));
+        } else if (action == LithosEnv.EAT_COOKED_MEAT) {
+            pool.eatCookedMeat(lane);
+        } else if (action < LithosEnv.SLEEP) {
+            int companion = LithosEnv.COMPANIONS[action - LithosEnv.REVIVE];
+            if (pool.revive(lane, companion)) revived[lane] |= companion;
+        } else {
+            pool.sleep(lane, weatherModel, rng.at(lane));
+        }
+    }
+
+    // LithosEnv's score
+    private int score(int lane) {
+        int held = pool.getCraftedItemCount(lane);
+        for (int column = 0; column < LithosEnv.MATERIALS.length; column++) {
+            held += pool.materialAt(column, lane);
+        }
+        return held + LithosEnv.SCORE_PER_MILESTONE
+                * (Integer.bitCount(pool.getFlags(lane) & LithosEnv.STRUCTURES) + Integer.bitCount(revived[lane]));
+    }
+}
@@ -1,4 +1,5 @@
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 // Enum representing different types of weather,
 // each with a description, flavor text, and yield multiplier.
@@ -22,14 +23,14 @@ public enum Weather {
         this.multiplier = multiplier;
     }
     
-    // Generates a random weather condition based on weighted chances:
+    // Generates a random weather condition based on weighted chances (unseeded; the game uses its own RNG)
     public static Weather generate() {
-        Random r = new Random();
-        int roll = r.nextInt(100); // Generates a number from 0 to 99
-        
-        if (roll < 10) return STORM;        // 10% chance
-        if (roll < 25) return CLEAR_SUN;    // Next 15% (total 25%)
-        if (roll < 50) return BRIGHT_SUN;   // Next 25% (total 50%)
-        return NORMAL;                      // Remaining 50%
+        return generate(ThreadLocalRandom.current());
+    }
+
+    // Same weighted roll using the caller's RNG (seeded runs, simulations).
+    // The odds live in IndependentWeather.STANDARD: 10% storm, 15% clear sun, 25% bright sun, 50% normal
+    public static Weather generate(RandomGenerator r) {
+        return IndependentWeather.STANDARD.roll(r);
     }
 }
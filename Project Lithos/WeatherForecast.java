@@ -0,0 +1,62 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+// The coming days' weather for a game. Forecasting rolls those days through the model right
+// away and keeps them, and sleeping takes the next kept day, so a forecast is exactly the
+// weather that will come. Given a stream used for nothing but weather (GameState's weather
+// stream), the days come out the same with or without forecasts, and the game's other rolls
+// aren't shifted by them, so a seeded game stays reproducible either way.
+//
+// The forecast is not part of a save: loading clears it and the following days are rolled again.
+public final class WeatherForecast {
+    private final ArrayDeque<Weather> upcoming = new ArrayDeque<>(); // Already rolled, from tomorrow on
+    private WeatherModel model;
+
+    public WeatherForecast(WeatherModel model) {
+        setModel(model);
+    }
+
+    public WeatherModel getModel() {
+        return model;
+    }
+
+    // Switches model; days already forecast are rolled again with the new one
+    public void setModel(WeatherModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("A weather model is required.");
+        }
+        this.model = model;
+        upcoming.clear();
+    }
+
+    // Weather of the days after the given day (today, with today's weather), rolling any not yet known
+    public List<Weather> forecast(Weather today, int day, int days, RandomGenerator rng) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days cannot be negative: " + days);
+        }
+        Weather previous = upcoming.isEmpty() ? today : upcoming.peekLast();
+        for (int next = day + 1 + upcoming.size(); upcoming.size() < days; next++) {
+            previous = model.next(previous, next, rng);
+            upcoming.addLast(previous);
+        }
+        List<Weather> forecast = new ArrayList<>(days);
+        for (Weather weather : upcoming) {
+            if (forecast.size() == days) break;
+            forecast.add(weather);
+        }
+        return forecast;
+    }
+
+    // Weather for a new day, after a day of previous weather: the forecast one if there is one
+    public Weather next(Weather previous, int day, RandomGenerator rng) {
+        Weather forecast = upcoming.pollFirst();
+        return forecast != null ? forecast : model.next(previous, day, rng);
+    }
+
+    // Forgets the forecast days (the game jumped to another day, e.g. on load)
+    public void clear() {
+        upcoming.clear();
+    }
+}
@@ -0,0 +1,15 @@
+import java.util.random.RandomGenerator;
+
+// How each new day's weather is chosen. GameState and WorldState roll the next day through
+// their model when the player sleeps, so the weather rules can be swapped without touching
+// the day logic:
+//   IndependentWeather  a fresh weighted roll every day (the standard game)
+//   MarkovWeather       tomorrow depends on today (weather that tends to persist)
+//   WeatherSequence     a precomputed run of days, the same every time it is played
+public interface WeatherModel {
+    // Weather for the given day (the day being started), after a day of previous weather
+    Weather next(Weather previous, int day, RandomGenerator rng);
+
+    // Chance of each weather, indexed by ordinal, for the given day after previous weather
+    double[] chances(Weather previous, int day);
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// A run of days' weather worked out ahead of time, one byte (the Weather ordinal) per day.
+// Played as a WeatherModel it gives the same weather every time, whatever the RNG does, so
+// many simulations can share one season; knowing the days up front also lets them batch
+// days of the same weather (runLength, counts) instead of going day by day.
+// Days past the end fall back to the model the sequence was generated from.
+public final class WeatherSequence implements WeatherModel {
+    private final int firstDay;          // Day number of days[0]
+    private final byte[] days;           // Weather ordinal per day
+    private final WeatherModel after;    // Model for days outside the sequence
+
+    private WeatherSequence(int firstDay, byte[] days, WeatherModel after) {
+        if (firstDay < 1) {
+            throw new IllegalArgumentException("Days are numbered from 1: " + firstDay);
+        }
+        this.firstDay = firstDay;
+        this.days = days;
+        this.after = after;
+    }
+
+    // Fixed weather from firstDay on (scripted scenarios); standard weather afterwards
+    public static WeatherSequence of(int firstDay, Weather... weather) {
+        byte[] days = new byte[weather.length];
+        for (int i = 0; i < weather.length; i++) {
+            days[i] = (byte) weather[i].ordinal();
+        }
+        return new WeatherSequence(firstDay, days, IndependentWeather.STANDARD);
+    }
+
+    // Rolls length days through a model, starting the day after a day of today's weather.
+    // The same arguments always give the same sequence
+    public static WeatherSequence generate(WeatherModel model, Weather today, int firstDay, int length, long seed) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative: " + length);
+        }
+        GameRandom rng = new GameRandom(seed);
+        byte[] days = new byte[length];
+        Weather previous = today;
+        for (int i = 0; i < length; i++) {
+            previous = model.next(previous, firstDay + i, rng);
+            days[i] = (byte) previous.ordinal();
+        }
+        return new WeatherSequence(firstDay, days, model);
+    }
+
+    @Override
+    public Weather next(Weather previous, int day, RandomGenerator rng) {
+        return contains(day) ? get(day) : after.next(previous, day, rng);
+    }
+
+    @Override
+    public double[] chances(Weather previous, int day) {
+        if (!contains(day)) {
+            return after.chances(previous, day);
+        }
+        double[] chances = new double[Weather.values().length];
+        chances[days[day - firstDay]] = 1.0;
+        return chances;
+    }
+
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    // Number of days held
+    public int length() {
+        return days.length;
+    }
+
+    public boolean contains(int day) {
+        return day >= firstDay && day - firstDay < days.length;
+    }
+
+    // Weather of one day in the sequence
+    public Weather get(int day) {
+        if (!contains(day)) {
+            throw new IndexOutOfBoundsException("Day " + day + " is outside days " + firstDay + "-" + (firstDay + days.length - 1));
+        }
+        return Weather.values()[days[day - firstDay]];
+    }
+
+    // How many days in a row, starting at day, have that day's weather
+    public int runLength(int day) {
+        int start = day - firstDay;
+        byte weather = days[start];
+        int end = start + 1;
+        while (end < days.length && days[end] == weather) end++;
+        return end - start;
+    }
+
+    // Number of days of each weather, by ordinal
+    public int[] counts() {
+        int[] counts = new int[Weather.values().length];
+        for (byte weather : days) counts[weather]++;
+        return counts;
+    }
+
+    // Every day's weather, in order
+    public Weather[] toArray() {
+        Weather[] weather = new Weather[days.length];
+        for (int i = 0; i < days.length; i++) {
+            weather[i] = Weather.values()[days[i]];
+        }
+        return weather;
+    }
+
+    // The compact form: one Weather ordinal per day
+    public byte[] toBytes() {
+        return days.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "WeatherSequence(days " + firstDay + "-" + (firstDay + days.length - 1) + ": " + Arrays.toString(toArray()) + ")";
+    }
+}
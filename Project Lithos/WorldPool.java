@@ -0,0 +1,503 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+// A million games in a handful of arrays. A game held as objects is a GameState, an Inventory,
+// maps, item lists and boxed counts; here every field is one primitive array indexed by world,
+// and every material (and crafted item kind) is one more int array, so a world costs about a
+// hundred bytes and nothing is left for the GC to trace. Flags fit in a byte and the Deep Sea
+// tracker in an int (one bit per Deep Sea slot), so those two columns take 5 bytes, not 12.
+//
+// Worlds follow WorldState's rules, applied by batch operations over index ranges: explore,
+// craft, eat and sleep a whole range in one call. Every world has its own random stream (one
+// long, SplittableRandom's generator), so a world plays the same however the ranges are split
+// or spread over threads, and ranges that don't overlap can run concurrently; parallel() does
+// that in fixed chunks on the common ForkJoinPool.
+//
+// Only the materials the rules can produce or use are stored (MATERIALS); snapshots of any
+// other material are dropped on load.
+public final class WorldPool {
+    // Worlds per parallel() task; fixed so the split never depends on the thread count
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final Weather[] WEATHERS = Weather.values();
+    private static final int MAP_FRAGMENT = MaterialRegistry.intern("Map Fragment");
+
+    // Every material the rules can put in an inventory (drops, recipe inputs and outputs), by registry id
+    static final int[] MATERIALS = storedMaterials();
+    // Crafted item kinds (outputs of ITEM recipes), in RecipeBook order
+    static final int[] CRAFTED = craftedKinds();
+    private static final int[] COLUMNS = columns(MATERIALS); // Registry id -> index in MATERIALS, or -1
+
+    // The tracker column is an int, so the Deep Sea table must fit in 32 slots
+    static {
+        if (CompiledDropTable.of(Place.DEEP_SEA_SHORE, Weather.NORMAL, true).size() > Integer.SIZE) {
+            throw new IllegalStateException("Deep Sea Shore has more than " + Integer.SIZE + " drops");
+        }
+    }
+
+    // A range of worlds, for parallel()
+    public interface RangeTask {
+        void run(WorldPool pool, int from, int to);
+    }
+
+    private final int capacity;
+
+    // One entry per world
+    private final int[] day;
+    private final byte[] weather;          // Weather ordinal
+    private final byte[] explorationsLeft;
+    private final int[] fullness;
+    private final int[] platinumChance;
+    private final byte[] flags;            // GameSnapshot bits (all below 1 << 8)
+    private final int[] deepSeaTracker;    // Bit per Deep Sea slot found since the last Painite
+    private final long[] seeds;            // Random stream state
+
+    // [column][world]: one array per material in MATERIALS and per kind in CRAFTED
+    private final int[][] materials;
+    private final int[][] crafted;
+
+    public WorldPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A pool needs room for at least one world: " + capacity);
+        }
+        this.capacity = capacity;
+        day = new int[capacity];
+        weather = new byte[capacity];
+        explorationsLeft = new byte[capacity];
+        fullness = new int[capacity];
+        platinumChance = new int[capacity];
+        flags = new byte[capacity];
+        deepSeaTracker = new int[capacity];
+        seeds = new long[capacity];
+        materials = new int[MATERIALS.length][capacity];
+        crafted = new int[CRAFTED.length][capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // --- Loading and reading back ---
+
+    // Puts the same game in every world of the range
+    public void fill(GameSnapshot snapshot, int from, int to) {
+        checkRange(from, to);
+        Arrays.fill(day, from, to, snapshot.currentDay);
+        Arrays.fill(weather, from, to, (byte) snapshot.weather.ordinal());
+        Arrays.fill(explorationsLeft, from, to, (byte) snapshot.explorationsLeft);
+        Arrays.fill(fullness, from, to, snapshot.fullness);
+        Arrays.fill(platinumChance, from, to, snapshot.platinumChance);
+        Arrays.fill(flags, from, to, (byte) snapshot.flags);
+        Arrays.fill(deepSeaTracker, from, to, (int) snapshot.deepSeaTracker);
+        for (int column = 0; column < MATERIALS.length; column++) {
+            Arrays.fill(materials[column], from, to, snapshot.getMaterialCount(MATERIALS[column]));
+        }
+        for (int column = 0; column < CRAFTED.length; column++) {
+            Arrays.fill(crafted[column], from, to, snapshot.getCraftedItemCount(CRAFTED[column]));
+        }
+    }
+
+    // World w of the range gets the stream of new SplittableRandom(seed + w)
+    public void seed(long seed, int from, int to) {
+        checkRange(from, to);
+        for (int w = from; w < to; w++) {
+            seeds[w] = seed + w;
+        }
+    }
+
+    // The world as a snapshot
+    public GameSnapshot snapshot(int world) {
+        int[] counts = new int[MaterialRegistry.size()];
+        for (int column = 0; column < MATERIALS.length; column++) {
+            counts[MATERIALS[column]] = materials[column][world];
+        }
+        int[] craftedCounts = new int[CraftedItemRegistry.size()];
+        for (int column = 0; column < CRAFTED.length; column++) {
+            craftedCounts[CRAFTED[column]] = crafted[column][world];
+        }
+        return new GameSnapshot(day[world], explorationsLeft[world], WEATHERS[weather[world]], platinumChance[world],
+                fullness[world], getFlags(world), getDeepSeaTracker(world), counts, craftedCounts);
+    }
+
+    public int getDay(int world) { return day[world]; }
+    public Weather getWeather(int world) { return WEATHERS[weather[world]]; }
+    public int getExplorationsLeft(int world) { return explorationsLeft[world]; }
+    public int getFullness(int world) { return fullness[world]; }
+    public int getFlags(int world) { return flags[world] & 0xFF; }
+    public boolean has(int world, int flag) { return (flags[world] & flag) != 0; }
+    public long getDeepSeaTracker(int world) { return deepSeaTracker[world] & 0xFFFFFFFFL; }
+
+    public int getMaterialCount(int world, int id) {
+        int column = column(id);
+        return column < 0 ? 0 : materials[column][world];
+    }
+
+    // Count by stored column (index in MATERIALS / CRAFTED), skipping the id lookup
+    int materialAt(int column, int world) { return materials[column][world]; }
+    int craftedAt(int column, int world) { return crafted[column][world]; }
+
+    public int getCraftedItemCount(int world, int kind) {
+        int column = craftedColumn(kind);
+        return column < 0 ? 0 : crafted[column][world];
+    }
+
+    public int getCraftedItemCount(int world) {
+        int total = 0;
+        for (int[] kind : crafted) {
+            total += kind[world];
+        }
+        return total;
+    }
+
+    // Total of a material over a range of worlds
+    public long sumMaterial(int id, int from, int to) {
+        checkRange(from, to);
+        int column = column(id);
+        if (column < 0) {
+            return 0;
+        }
+        long sum = 0;
+        int[] counts = materials[column];
+        for (int w = from; w < to; w++) {
+            sum += counts[w];
+        }
+        return sum;
+    }
+
+    // --- Batch rules ---
+
+    // Every world in the range explores the place once, if it can today (see WorldState.explore).
+    // Outcome counts are added to outcomes (indexed by Outcome ordinal) when it is given
+    public void explore(int from, int to, Place place, int[] outcomes) {
+        checkRange(from, to);
+        Streams rng = streams();
+        for (int w = from; w < to; w++) {
+            if (explorationsLeft[w] > 0 && canExplore(w, place)) {
+                WorldState.Outcome outcome = explore(w, place, rng.at(w));
+                if (outcomes != null) outcomes[outcome.ordinal()]++;
+            }
+        }
+    }
+
+    // Every world in the range that has the inputs attempts the recipe once; returns units produced
+    public int craft(int from, int to, Recipe recipe, boolean useCatalyst) {
+        checkRange(from, to);
+        Streams rng = streams();
+        int produced = 0;
+        for (int w = from; w < to; w++) {
+            if (canCraft(w, recipe, useCatalyst)) {
+                produced += craft(w, recipe, useCatalyst, rng.at(w));
+            }
+        }
+        return produced;
+    }
+
+    // Every world in the range with Cooked Meat and no attempts left eats one; returns how many ate
+    public int eatCookedMeat(int from, int to) {
+        checkRange(from, to);
+        int eaten = 0;
+        for (int w = from; w < to; w++) {
+            if (explorationsLeft[w] == 0 && eatCookedMeat(w)) eaten++;
+        }
+        return eaten;
+    }
+
+    // Every world in the range goes to the next day
+    public void sleep(int from, int to, WeatherModel model) {
+        checkRange(from, to);
+        Streams rng = streams();
+        for (int w = from; w < to; w++) {
+            sleep(w, model, rng.at(w));
+        }
+    }
+
+    // Runs a task over the whole pool in fixed chunks on the common ForkJoinPool
+    public void parallel(RangeTask task) {
+        int chunks = (capacity + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel()
+                .forEach(chunk -> task.run(this, chunk * CHUNK_SIZE, Math.min(capacity, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    // --- One world (WorldState's rules over the arrays) ---
+
+    // A random source to pass to the single-world rules; at(w) points it at world w's stream.
+    // Not thread-safe: each thread takes its own
+    public Streams streams() {
+        return new Streams();
+    }
+
+    public boolean canExplore(int world, Place place) {
+        if (place == Place.CAVE) return has(world, GameSnapshot.MAP_FRAGMENT);
+        if (place == Place.DEEP_SEA_SHORE) return day[world] >= WorldState.DEEP_SEA_UNLOCK_DAY;
+        return true;
+    }
+
+    public boolean isBuilt(int world, Recipe recipe) {
+        return recipe.isPermanent() && has(world, structureFlag(recipe));
+    }
+
+    // True if the world holds the inputs (and catalyst, if wanted) and the recipe isn't a standing structure
+    public boolean canCraft(int world, Recipe recipe, boolean withCatalyst) {
+        if (isBuilt(world, recipe)) {
+            return false;
+        }
+        for (int i = 0; i < recipe.inputCount(); i++) {
+            if (getMaterialCount(world, recipe.inputId(i)) < recipe.inputAmount(i)) return false;
+        }
+        return !withCatalyst || !recipe.hasCatalyst() || getMaterialCount(world, recipe.getCatalystId()) >= 1;
+    }
+
+    // WorldState.explore, fullness cost included
+    public WorldState.Outcome explore(int world, Place place, RandomGenerator rng) {
+        if (explorationsLeft[world] <= 0) {
+            return WorldState.Outcome.EXHAUSTED;
+        }
+        try {
+            return explorePlace(world, place, rng);
+        } finally {
+            decreaseFullness(world);
+        }
+    }
+
+    private WorldState.Outcome explorePlace(int w, Place place, RandomGenerator rng) {
+        if (!canExplore(w, place)) {
+            return WorldState.Outcome.LOCKED;
+        }
+
+        if (has(w, GameSnapshot.AKIO_REVIVED)) {
+            if (day[w] >= WorldState.AKIO_THEFT_DAY && rng.nextInt(100) < 25 && getCraftedItemCount(w) > 0) {
+                removeRandomCraftedItem(w, rng);
+                explorationsLeft[w]--;
+                return WorldState.Outcome.AKIO_THEFT;
+            }
+            companionReturned(w, GameSnapshot.AKIO_REVIVED);
+            return WorldState.Outcome.AKIO_RESET;
+        }
+
+        if (rng.nextInt(100) < DropTable.HAZARD_CHANCE) {
+            if (!useOne(w, MaterialRegistry.STONE) && !useOne(w, MaterialRegistry.COOKED_MEAT)) {
+                if (getCraftedItemCount(w) > 0) {
+                    removeRandomCraftedItem(w, rng);
+                } else {
+                    decreaseFullness(w);
+                }
+            }
+            explorationsLeft[w]--;
+            return WorldState.Outcome.HAZARD;
+        }
+
+        CompiledDropTable table = CompiledDropTable.of(place, WEATHERS[weather[w]], fullness[w] > 0);
+        long mask = table.rollMask(rng);
+        int yield = has(w, GameSnapshot.KINO_REVIVED) ? 2 : 1;
+        boolean painite = false;
+        if (table.isDeepSea()) {
+            deepSeaTracker[w] |= (int) mask;
+            if (Integer.bitCount(deepSeaTracker[w]) >= DropTable.PAINITE_UNIQUE_ITEMS) {
+                deepSeaTracker[w] = 0;
+                painite = true;
+            }
+        }
+        explorationsLeft[w]--;
+        if (mask == 0 && !painite) {
+            return WorldState.Outcome.NOTHING;
+        }
+        for (long m = mask; m != 0; m &= m - 1) {
+            addMaterial(w, table.materialId(Long.numberOfTrailingZeros(m)), yield);
+        }
+        if (painite) {
+            addMaterial(w, MaterialRegistry.PAINITE, yield);
+        }
+        return WorldState.Outcome.FOUND;
+    }
+
+    // WorldState.craft: inputs are used up whether or not the craft works. The caller checks
+    // canCraft first; returns units produced
+    public int craft(int world, Recipe recipe, boolean useCatalyst, RandomGenerator rng) {
+        for (int i = 0; i < recipe.inputCount(); i++) {
+            addMaterial(world, recipe.inputId(i), -recipe.inputAmount(i));
+        }
+        boolean catalyst = useCatalyst && recipe.hasCatalyst();
+        if (catalyst) {
+            addMaterial(world, recipe.getCatalystId(), -1);
+        }
+        if (recipe.rollSuccesses(rng, 1, has(world, GameSnapshot.ALWAYS_SUCCESSFUL_CRAFT)) == 0) {
+            return 0;
+        }
+        int produced = catalyst ? recipe.getCatalystMultiplier() : 1;
+        switch (recipe.output) {
+            case STRUCTURE -> flags[world] |= structureFlag(recipe);
+            case ITEM -> crafted[craftedColumn(CraftedItemRegistry.intern(recipe.name))][world] += produced;
+            case MATERIAL -> addMaterial(world, MaterialRegistry.intern(recipe.name), produced);
+        }
+        return produced;
+    }
+
+    // Eating Cooked Meat resets today's attempts; false if there is none
+    public boolean eatCookedMeat(int world) {
+        if (!useOne(world, MaterialRegistry.COOKED_MEAT)) {
+            return false;
+        }
+        explorationsLeft[world] = WorldState.MAX_EXPLORATIONS;
+        return true;
+    }
+
+    // Uses one crafted item of a kind; false if there is none
+    public boolean useCraftedItem(int world, int kind) {
+        int column = craftedColumn(kind);
+        if (column < 0 || crafted[column][world] == 0) {
+            return false;
+        }
+        crafted[column][world]--;
+        return true;
+    }
+
+    // Drinks a Revival Potion to bring a companion back; false (nothing changes) without one.
+    // companion is GameSnapshot.KINO_REVIVED, BEM_REVIVED or AKIO_REVIVED
+    public boolean revive(int world, int companion) {
+        if (!useCraftedItem(world, CraftedItemRegistry.REVIVAL_POTION)) {
+            return false;
+        }
+        companionReturned(world, companion);
+        return true;
+    }
+
+    // A companion's effect, with no potion: only one is active at a time, and Akio takes
+    // everything when he comes back
+    private void companionReturned(int world, int companion) {
+        int bits = companion == GameSnapshot.BEM_REVIVED ? companion | GameSnapshot.ALWAYS_SUCCESSFUL_CRAFT : companion;
+        flags[world] = (byte) ((flags[world] & ~GameSnapshot.COMPANIONS) | bits);
+        if (companion == GameSnapshot.AKIO_REVIVED) {
+            for (int[] counts : materials) counts[world] = 0;
+            for (int[] counts : crafted) counts[world] = 0;
+            deepSeaTracker[world] = 0;
+        }
+    }
+
+    public void sleep(int world, WeatherModel model, RandomGenerator rng) {
+        day[world]++;
+        explorationsLeft[world] = WorldState.MAX_EXPLORATIONS;
+        weather[world] = (byte) model.next(WEATHERS[weather[world]], day[world], rng).ordinal();
+    }
+
+    // One crafted item picked uniformly from everything the world holds (by kind order, where
+    // WorldState goes by stack order; the odds are the same)
+    private void removeRandomCraftedItem(int world, RandomGenerator rng) {
+        int index = rng.nextInt(getCraftedItemCount(world));
+        for (int[] counts : crafted) {
+            index -= counts[world];
+            if (index < 0) {
+                counts[world]--;
+                return;
+            }
+        }
+    }
+
+    private void addMaterial(int world, int id, int amount) {
+        materials[COLUMNS[id]][world] += amount;
+        if (id == MAP_FRAGMENT && amount > 0) {
+            flags[world] |= GameSnapshot.MAP_FRAGMENT; // Picking up a Map Fragment reveals the Cave
+        }
+    }
+
+    private boolean useOne(int world, int id) {
+        int[] counts = materials[COLUMNS[id]];
+        if (counts[world] == 0) {
+            return false;
+        }
+        counts[world]--;
+        return true;
+    }
+
+    private void decreaseFullness(int world) {
+        if (fullness[world] > 0) fullness[world]--;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > capacity || from > to) {
+            throw new IndexOutOfBoundsException("Worlds " + from + ".." + to + " outside a pool of " + capacity);
+        }
+    }
+
+    private static int structureFlag(Recipe recipe) {
+        return recipe == RecipeBook.FURNACE ? GameSnapshot.FURNACE : GameSnapshot.ALCHEMY_TABLE;
+    }
+
+    // --- Stored columns ---
+
+    // Index of a material in MATERIALS, or -1 if the pool doesn't store it
+    static int column(int id) {
+        return id < COLUMNS.length ? COLUMNS[id] : -1;
+    }
+
+    static int craftedColumn(int kind) {
+        for (int i = 0; i < CRAFTED.length; i++) {
+            if (CRAFTED[i] == kind) return i;
+        }
+        return -1;
+    }
+
+    private static int[] storedMaterials() {
+        BitSet ids = new BitSet();
+        for (Place place : Place.values()) {
+            CompiledDropTable table = CompiledDropTable.of(place, Weather.NORMAL, true);
+            for (int slot = 0; slot < table.size(); slot++) {
+                ids.set(table.materialId(slot));
+            }
+        }
+        ids.set(MaterialRegistry.PAINITE);
+        ids.set(MaterialRegistry.COOKED_MEAT);
+        for (Recipe recipe : RecipeBook.ALL) {
+            for (int i = 0; i < recipe.inputCount(); i++) {
+                ids.set(recipe.inputId(i));
+            }
+            if (recipe.hasCatalyst()) ids.set(recipe.getCatalystId());
+            if (recipe.output == Recipe.Output.MATERIAL) ids.set(MaterialRegistry.intern(recipe.name));
+        }
+        return ids.stream().toArray();
+    }
+
+    private static int[] craftedKinds() {
+        return RecipeBook.ALL.stream()
+                .filter(recipe -> recipe.output == Recipe.Output.ITEM)
+                .mapToInt(recipe -> CraftedItemRegistry.intern(recipe.name))
+                .toArray();
+    }
+
+    private static int[] columns(int[] ids) {
+        int[] columns = new int[ids[ids.length - 1] + 1];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < ids.length; i++) {
+            columns[ids[i]] = i;
+        }
+        return columns;
+    }
+
+    // SplittableRandom's generator (same seed, same numbers) over one world's seed at a time
+    public final class Streams implements RandomGenerator {
+        private int world;
+
+        private Streams() {}
+
+        public Streams at(int world) {
+            this.world = world;
+            return this;
+        }
+
+        @Override
+        public long nextLong() {
+            long z = seeds[world] += GOLDEN_GAMMA;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override
+        public int nextInt() {
+            long z = seeds[world] += GOLDEN_GAMMA;
+            z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+            return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+        }
+    }
+}
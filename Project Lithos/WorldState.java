@@ -0,0 +1,418 @@
+import java.util.random.RandomGenerator;
+
+// Headless, forkable copy of a whole game (GameState + Inventory) for searching over decisions.
+//
+// fork() is O(1): the material and crafted-item arrays are shared copy-on-write, so thousands
+// of branches reuse the same data until one of them actually changes it. A WorldState is meant
+// to be used by one thread at a time; separate forks can be played on separate threads.
+//
+// The rules mirror Explore, DropTable, Create/AlchemyTable and GameState, without any console I/O.
+public class WorldState {
+    // What happened on one explore() call
+    public enum Outcome {
+        EXHAUSTED,   // No exploration attempts left today
+        LOCKED,      // Cave without a Map Fragment, or Deep Sea before Day 5
+        AKIO_THEFT,  // Akio stole a crafted item (Day 10+)
+        AKIO_RESET,  // Akio stole everything
+        HAZARD,      // Hazard hit, something was lost
+        NOTHING,     // No materials found
+        FOUND        // At least one material found
+    }
+
+    static final int MAX_EXPLORATIONS = 10;
+    static final int DEEP_SEA_UNLOCK_DAY = 5;
+    static final int AKIO_THEFT_DAY = 10;
+    private static final int MAP_FRAGMENT = MaterialRegistry.intern("Map Fragment");
+
+    private int currentDay;
+    private int explorationsLeft;
+    private Weather weather;
+    private int platinumChance;
+    private int fullness;
+    private int flags;               // GameSnapshot flag bits (companions, map fragment, structures)
+    private long deepSeaTracker;     // Bit per Deep Sea slot found since the last Painite
+
+    // Copy-on-write arrays: only written once this state owns its own copy
+    private int[] materials;         // Count per MaterialRegistry id
+    private CraftedItemStore craftedItems; // Counted stacks per kind (Spear, Revival Potion, ...)
+    private boolean ownsMaterials;
+    private boolean ownsCraftedItems;
+
+    private long version;            // Bumped on every change; WorldTransaction commits check it
+    private WorldTransaction transaction; // Reused by this state's own multi-step changes (craft)
+
+    // Starts from a saved or captured game
+    public WorldState(GameSnapshot snapshot) {
+        this.currentDay = snapshot.currentDay;
+        this.explorationsLeft = snapshot.explorationsLeft;
+        this.weather = snapshot.weather;
+        this.platinumChance = snapshot.platinumChance;
+        this.fullness = snapshot.fullness;
+        this.flags = snapshot.flags;
+        this.deepSeaTracker = snapshot.deepSeaTracker;
+        this.materials = new int[Math.max(MaterialRegistry.size(), snapshot.materialSlots())];
+        for (int id = 0; id < materials.length; id++) {
+            materials[id] = snapshot.getMaterialCount(id);
+        }
+        this.craftedItems = new CraftedItemStore();
+        for (int kind = 0; kind < snapshot.craftedItemSlots(); kind++) {
+            craftedItems.add(kind, snapshot.getCraftedItemCount(kind));
+        }
+        this.ownsMaterials = true;
+        this.ownsCraftedItems = true;
+    }
+
+    private WorldState(WorldState parent) {
+        this.currentDay = parent.currentDay;
+        this.explorationsLeft = parent.explorationsLeft;
+        this.weather = parent.weather;
+        this.platinumChance = parent.platinumChance;
+        this.fullness = parent.fullness;
+        this.flags = parent.flags;
+        this.deepSeaTracker = parent.deepSeaTracker;
+        this.materials = parent.materials;
+        this.craftedItems = parent.craftedItems;
+    }
+
+    // Cheap branch: shares both arrays with this state until either side writes to them
+    public WorldState fork() {
+        ownsMaterials = false;
+        ownsCraftedItems = false;
+        return new WorldState(this);
+    }
+
+    // Back to the snapshot form (for saving, or for restoring into a console game)
+    public GameSnapshot toSnapshot() {
+        int[] crafted = new int[CraftedItemRegistry.size()];
+        for (int kind = 0; kind < crafted.length; kind++) {
+            crafted[kind] = craftedItems.getCount(kind);
+        }
+        return new GameSnapshot(currentDay, explorationsLeft, weather, platinumChance, fullness, flags, deepSeaTracker,
+                materials, crafted);
+    }
+
+    // --- Copy-on-write helpers ---
+
+    private int[] writableMaterials(int id) {
+        if (!ownsMaterials || id >= materials.length) {
+            int[] copy = new int[Math.max(materials.length, Math.max(id + 1, MaterialRegistry.size()))];
+            System.arraycopy(materials, 0, copy, 0, materials.length);
+            materials = copy;
+            ownsMaterials = true;
+        }
+        return materials;
+    }
+
+    private CraftedItemStore writableCraftedItems() {
+        if (!ownsCraftedItems) {
+            craftedItems = craftedItems.copy();
+            ownsCraftedItems = true;
+        }
+        return craftedItems;
+    }
+
+    // --- Inventory ---
+
+    public int getMaterialCount(int id) {
+        return id < materials.length ? materials[id] : 0;
+    }
+
+    public void addRawMaterial(int id, int amount) {
+        version++;
+        writableMaterials(id)[id] += amount;
+        if (id == MAP_FRAGMENT) {
+            flags |= GameSnapshot.MAP_FRAGMENT; // Picking up a Map Fragment reveals the Cave
+        }
+    }
+
+    // Removes an amount if enough is held; returns false (and changes nothing) otherwise
+    public boolean useMaterial(int id, int amount) {
+        if (getMaterialCount(id) < amount) {
+            return false;
+        }
+        version++;
+        writableMaterials(id)[id] -= amount;
+        return true;
+    }
+
+    public int getCraftedItemCount(int id) {
+        return craftedItems.getCount(id);
+    }
+
+    // Total crafted items of every kind
+    public int getCraftedItemCount() {
+        return craftedItems.getTotal();
+    }
+
+    public void addCraftedItem(int id, int amount) {
+        version++;
+        writableCraftedItems().add(id, amount);
+    }
+
+    // Uses one crafted item of a kind; false if there is none
+    public boolean useCraftedItem(int id) {
+        if (getCraftedItemCount(id) == 0) {
+            return false;
+        }
+        version++;
+        return writableCraftedItems().use(id);
+    }
+
+    // Removes one crafted item chosen uniformly from everything held
+    public void removeRandomCraftedItem(RandomGenerator rng) {
+        if (getCraftedItemCount() > 0) {
+            version++;
+            writableCraftedItems().removeRandom(rng);
+        }
+    }
+
+    // Akio's theft: all materials and crafted items are gone (structures stay standing)
+    public void clearInventory() {
+        version++;
+        materials = new int[materials.length];
+        craftedItems = new CraftedItemStore();
+        ownsMaterials = true;
+        ownsCraftedItems = true;
+        deepSeaTracker = 0;
+    }
+
+    // Deep Sea finds as recorded (journal replay)
+    public void setDeepSeaTracker(long bits) {
+        version++;
+        deepSeaTracker = bits;
+    }
+
+    // Fullness after a change Inventory made itself (eating)
+    public void setFullness(int level) {
+        version++;
+        fullness = level;
+    }
+
+    public void decreaseFullness() {
+        if (fullness > 0) {
+            fullness--;
+            version++;
+        }
+    }
+
+    // --- GameState ---
+
+    public void sleep(RandomGenerator rng) {
+        sleep(IndependentWeather.STANDARD, rng);
+    }
+
+    // Next day with the weather rolled by a model
+    public void sleep(WeatherModel model, RandomGenerator rng) {
+        sleep(model.next(weather, currentDay + 1, rng));
+    }
+
+    // Next day with a known weather (journal replay, scripted scenarios)
+    public void sleep(Weather weather) {
+        version++;
+        currentDay++;
+        explorationsLeft = MAX_EXPLORATIONS;
+        this.weather = weather;
+    }
+
+    public void decrementExploration() {
+        if (explorationsLeft > 0) {
+            explorationsLeft--;
+            version++;
+        }
+    }
+
+    public void resetExplorationLimit() {
+        explorationsLeft = MAX_EXPLORATIONS;
+        version++;
+    }
+
+    // Eating Cooked Meat resets today's exploration limit; false if there is none
+    public boolean eatCookedMeat() {
+        if (!useMaterial(MaterialRegistry.COOKED_MEAT, 1)) {
+            return false;
+        }
+        resetExplorationLimit();
+        return true;
+    }
+
+    // Drinking a Revival Potion brings a companion back; false (and nothing changes) without one
+    public boolean reviveKino() {
+        return revive(GameSnapshot.KINO_REVIVED);
+    }
+
+    public boolean reviveBem() {
+        return revive(GameSnapshot.BEM_REVIVED);
+    }
+
+    public boolean reviveAkio() {
+        return revive(GameSnapshot.AKIO_REVIVED);
+    }
+
+    private boolean revive(int companion) {
+        if (!useCraftedItem(CraftedItemRegistry.REVIVAL_POTION)) {
+            return false;
+        }
+        companionReturned(companion);
+        return true;
+    }
+
+    // A companion's effect alone, with no potion (Akio coming back to take everything, or a
+    // journal replay, where the potion was recorded on its own). Only one companion effect is
+    // active at a time, exactly as in GameState
+    void companionReturned(int companion) {
+        switch (companion) {
+            case GameSnapshot.KINO_REVIVED -> setCompanion(GameSnapshot.KINO_REVIVED);
+            case GameSnapshot.BEM_REVIVED -> setCompanion(GameSnapshot.BEM_REVIVED | GameSnapshot.ALWAYS_SUCCESSFUL_CRAFT);
+            case GameSnapshot.AKIO_REVIVED -> {
+                setCompanion(GameSnapshot.AKIO_REVIVED);
+                clearInventory();
+            }
+            default -> throw new IllegalArgumentException("Not a companion: " + companion);
+        }
+    }
+
+    public void setPlatinumChance(int platinumChance) {
+        version++;
+        this.platinumChance = platinumChance;
+    }
+
+    // Sets or clears a single GameSnapshot bit (map fragment, structures)
+    public void setFlag(int flag, boolean on) {
+        version++;
+        flags = on ? flags | flag : flags & ~flag;
+    }
+
+    private void setCompanion(int companionFlags) {
+        version++;
+        flags = (flags & ~GameSnapshot.COMPANIONS) | companionFlags;
+    }
+
+    public boolean has(int flag) { return (flags & flag) != 0; }
+    public int getFlags() { return flags; }
+    public int getCurrentDay() { return currentDay; }
+    public int getExplorationsLeft() { return explorationsLeft; }
+    public Weather getWeather() { return weather; }
+    public int getPlatinumChance() { return platinumChance; }
+    public int getFullness() { return fullness; }
+    public long getDeepSeaTracker() { return deepSeaTracker; }
+    public long getVersion() { return version; }
+
+    // True if the place can be explored today
+    public boolean canExplore(Place place) {
+        if (place == Place.CAVE) return has(GameSnapshot.MAP_FRAGMENT);
+        if (place == Place.DEEP_SEA_SHORE) return currentDay >= DEEP_SEA_UNLOCK_DAY;
+        return true;
+    }
+
+    // --- Rules ---
+
+    // One exploration, in the same order as Explore.explorePlace (plus the fullness cost the menu applies)
+    public Outcome explore(Place place, RandomGenerator rng) {
+        if (explorationsLeft <= 0) {
+            return Outcome.EXHAUSTED;
+        }
+        try {
+            return explorePlace(place, rng);
+        } finally {
+            decreaseFullness(); // Exploring costs fullness each time
+        }
+    }
+
+    private Outcome explorePlace(Place place, RandomGenerator rng) {
+        if (!canExplore(place)) {
+            return Outcome.LOCKED;
+        }
+
+        // Akio: Day 10+ he may steal a crafted item, otherwise he takes everything
+        if (has(GameSnapshot.AKIO_REVIVED)) {
+            if (currentDay >= AKIO_THEFT_DAY && rng.nextInt(100) < 25 && getCraftedItemCount() > 0) {
+                removeRandomCraftedItem(rng);
+                decrementExploration();
+                return Outcome.AKIO_THEFT;
+            }
+            companionReturned(GameSnapshot.AKIO_REVIVED);
+            return Outcome.AKIO_RESET;
+        }
+
+        // Hazard: lose Stone, then Cooked Meat, then a crafted item, else fullness
+        if (rng.nextInt(100) < DropTable.HAZARD_CHANCE) {
+            if (!useMaterial(MaterialRegistry.STONE, 1) && !useMaterial(MaterialRegistry.COOKED_MEAT, 1)) {
+                if (getCraftedItemCount() > 0) {
+                    removeRandomCraftedItem(rng);
+                } else {
+                    decreaseFullness();
+                }
+            }
+            decrementExploration();
+            return Outcome.HAZARD;
+        }
+
+        CompiledDropTable table = CompiledDropTable.of(place, weather, fullness > 0);
+        long mask = table.rollMask(rng);
+        int yield = has(GameSnapshot.KINO_REVIVED) ? 2 : 1;
+        boolean painite = false;
+
+        // Deep Sea gacha: enough unique finds -> guaranteed Painite, tracker resets
+        if (table.isDeepSea()) {
+            version++;
+            deepSeaTracker |= mask;
+            if (Long.bitCount(deepSeaTracker) >= DropTable.PAINITE_UNIQUE_ITEMS) {
+                deepSeaTracker = 0;
+                painite = true;
+            }
+        }
+
+        if (mask == 0 && !painite) {
+            decrementExploration();
+            return Outcome.NOTHING;
+        }
+
+        for (long m = mask; m != 0; m &= m - 1) {
+            addRawMaterial(table.materialId(Long.numberOfTrailingZeros(m)), yield);
+        }
+        if (painite) {
+            addRawMaterial(MaterialRegistry.PAINITE, yield);
+        }
+        decrementExploration();
+        return Outcome.FOUND;
+    }
+
+    // One craft attempt from RecipeBook; returns units produced (0 on failure or missing materials).
+    // Inputs and output are staged in one transaction, so the craft lands whole or not at all
+    public int craft(Recipe recipe, boolean useCatalyst, RandomGenerator rng) {
+        if (isBuilt(recipe)) {
+            return 0;
+        }
+        if (transaction == null) {
+            transaction = new WorldTransaction(this);
+        }
+        WorldTransaction craft = transaction.begin();
+
+        // Materials are consumed whether the craft works or not
+        if (!craft.consumeInputs(recipe, 1, useCatalyst)) {
+            return 0;
+        }
+        boolean catalyst = useCatalyst && recipe.hasCatalyst();
+
+        int produced = 0;
+        if (recipe.rollSuccesses(rng, 1, has(GameSnapshot.ALWAYS_SUCCESSFUL_CRAFT)) > 0) {
+            produced = catalyst ? recipe.getCatalystMultiplier() : 1;
+            switch (recipe.output) {
+                case STRUCTURE -> craft.setFlags(structureFlag(recipe));
+                case ITEM -> craft.addCraftedItem(CraftedItemRegistry.intern(recipe.name), produced);
+                case MATERIAL -> craft.addRawMaterial(MaterialRegistry.intern(recipe.name), produced);
+            }
+        }
+        craft.commit(); // Nothing else changes this state in between, so this can't conflict
+        return produced;
+    }
+
+    // True if the recipe is a structure that already stands
+    public boolean isBuilt(Recipe recipe) {
+        return recipe.isPermanent() && has(structureFlag(recipe));
+    }
+
+    private static int structureFlag(Recipe recipe) {
+        return recipe == RecipeBook.FURNACE ? GameSnapshot.FURNACE : GameSnapshot.ALCHEMY_TABLE;
+    }
+}
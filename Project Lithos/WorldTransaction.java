@@ -0,0 +1,184 @@
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.function.Predicate;
+
+// Staged changes to a WorldState, applied together or not at all.
+//
+// begin() notes the state's version. Reads through the transaction see the state plus what
+// has been staged so far, and nothing touches the state until commit(). commit() checks
+// that the state is still at the noted version (nothing else changed it in between) and
+// only then applies every staged change; otherwise it returns false and the caller starts
+// over, which run() does automatically. Everything is checked before the first write, so a
+// change is never refused halfway through, and an exception while staging changes nothing.
+//
+// A transaction can be reused with begin(), and its buffers only grow, so a simulation can
+// run millions of them per second without allocating. Threads sharing a WorldState must
+// make all their changes through transactions; begin() and commit() lock the state.
+public final class WorldTransaction {
+    // run() gives up after this many conflicting attempts in a row
+    private static final int MAX_ATTEMPTS = 1_000;
+
+    private final WorldState state;
+    private long version;
+
+    // Material changes: id and net amount, one entry per material touched
+    private int[] materialIds = new int[8];
+    private int[] materialDeltas = new int[8];
+    private int materials;
+
+    // Crafted items added: kind and amount
+    private int[] craftedKinds = new int[4];
+    private int[] craftedAmounts = new int[4];
+    private int crafted;
+
+    private int explorationsUsed;
+    private int fullnessDecreases;
+    private int flagsSet;            // GameSnapshot bits to set (structures)
+
+    public WorldTransaction(WorldState state) {
+        this.state = state;
+        begin();
+    }
+
+    // Stages one change set with retries: stage returns false to give up (nothing is applied),
+    // true to commit. A conflicting commit stages again from the new state.
+    public static boolean run(WorldState state, Predicate<WorldTransaction> stage) {
+        WorldTransaction transaction = new WorldTransaction(state);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (!stage.test(transaction)) {
+                return false;
+            }
+            if (transaction.commit()) {
+                return true;
+            }
+            transaction.begin();
+        }
+        throw new ConcurrentModificationException("World kept changing; gave up after " + MAX_ATTEMPTS + " attempts.");
+    }
+
+    // Forgets anything staged and starts again from the state's current version
+    public WorldTransaction begin() {
+        synchronized (state) {
+            version = state.getVersion();
+        }
+        materials = 0;
+        crafted = 0;
+        explorationsUsed = 0;
+        fullnessDecreases = 0;
+        flagsSet = 0;
+        return this;
+    }
+
+    // --- Staged reads and changes ---
+
+    public int getMaterialCount(int id) {
+        int slot = slotOf(id);
+        return state.getMaterialCount(id) + (slot < 0 ? 0 : materialDeltas[slot]);
+    }
+
+    // Stages taking an amount if enough is held (counting earlier staged changes); false otherwise
+    public boolean useMaterial(int id, int amount) {
+        if (getMaterialCount(id) < amount) {
+            return false;
+        }
+        materialDeltas[slotFor(id)] -= amount;
+        return true;
+    }
+
+    public void addRawMaterial(int id, int amount) {
+        materialDeltas[slotFor(id)] += amount;
+    }
+
+    // Stages a recipe's inputs for 'units' crafts (and its catalyst if wanted); false, with
+    // nothing staged, if any of them are short
+    public boolean consumeInputs(Recipe recipe, int units, boolean withCatalyst) {
+        if (!recipe.hasInputs(this::getMaterialCount, units, withCatalyst)) {
+            return false;
+        }
+        for (int i = 0; i < recipe.inputCount(); i++) {
+            useMaterial(recipe.inputId(i), recipe.inputAmount(i) * units);
+        }
+        if (withCatalyst && recipe.hasCatalyst()) {
+            useMaterial(recipe.getCatalystId(), units);
+        }
+        return true;
+    }
+
+    public void addCraftedItem(int kind, int amount) {
+        if (crafted == craftedKinds.length) {
+            craftedKinds = Arrays.copyOf(craftedKinds, crafted * 2);
+            craftedAmounts = Arrays.copyOf(craftedAmounts, crafted * 2);
+        }
+        craftedKinds[crafted] = kind;
+        craftedAmounts[crafted++] = amount;
+    }
+
+    public void decrementExploration() {
+        explorationsUsed++;
+    }
+
+    public void decreaseFullness() {
+        fullnessDecreases++;
+    }
+
+    // Stages setting GameSnapshot bits (e.g. a finished structure)
+    public void setFlags(int flags) {
+        flagsSet |= flags;
+    }
+
+    public WorldState getState() {
+        return state;
+    }
+
+    // --- Commit ---
+
+    // Applies everything staged if the state hasn't changed since begin(); false (nothing applied) if it has
+    public boolean commit() {
+        synchronized (state) {
+            if (state.getVersion() != version) {
+                return false;
+            }
+            // Uses were checked against this very version, so none of these can come up short
+            for (int i = 0; i < materials; i++) {
+                int delta = materialDeltas[i];
+                if (delta > 0) state.addRawMaterial(materialIds[i], delta);
+                else if (delta < 0) state.useMaterial(materialIds[i], -delta);
+            }
+            for (int i = 0; i < crafted; i++) {
+                state.addCraftedItem(craftedKinds[i], craftedAmounts[i]);
+            }
+            if (flagsSet != 0) state.setFlag(flagsSet, true);
+            for (int i = 0; i < explorationsUsed; i++) state.decrementExploration();
+            for (int i = 0; i < fullnessDecreases; i++) state.decreaseFullness();
+            version = state.getVersion();
+        }
+        materials = 0;
+        crafted = 0;
+        explorationsUsed = 0;
+        fullnessDecreases = 0;
+        flagsSet = 0;
+        return true;
+    }
+
+    // Slot of a material in the staged changes, or -1
+    private int slotOf(int id) {
+        for (int i = 0; i < materials; i++) {
+            if (materialIds[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private int slotFor(int id) {
+        int slot = slotOf(id);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (materials == materialIds.length) {
+            materialIds = Arrays.copyOf(materialIds, materials * 2);
+            materialDeltas = Arrays.copyOf(materialDeltas, materials * 2);
+        }
+        materialIds[materials] = id;
+        materialDeltas[materials] = 0;
+        return materials++;
+    }
+}
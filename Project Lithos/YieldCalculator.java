@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+// Exact expected yields for balancing, worked out from the drop chances instead of sampled.
+//
+// One exploration is: a 5% hazard (nothing found), otherwise every drop table slot drops
+// independently with its chance (DropTable's baseSuccessRate/50, weather/2 and rare-drop
+// scaling, as compiled in CompiledDropTable), each find doubled while Kino is revived.
+// Explorations are independent once it is known whether the player was fed, so a day or
+// a run of days is just a sum: means and variances add.
+//
+// Painite from the Deep Sea gacha depends on earlier finds, so it uses the long-run rate
+// from DeepSeaChain (renewal theory: mean n/mu, variance n*sigma^2/mu^3 over n explorations),
+// which is exact in the limit and close after a few gacha cycles.
+//
+// Not modelled: hazard losses (Stone, Cooked Meat...) are not subtracted from the finds,
+// and locked places are not checked. With Akio revived no exploration finds anything.
+public final class YieldCalculator {
+    private static final int EXPLORATIONS_PER_DAY = 10;
+
+    private final Place place;
+    private final Weather weather;
+    private final int yield;              // Amount per find: 2 with Kino, 0 with Akio, else 1
+    private final int[] materialIds;      // Distinct materials of this place, in slot order
+    private final YieldEstimate fed;      // One exploration with fullness above 0
+    private final YieldEstimate hungry;   // One exploration at fullness 0
+
+    // companions: GameSnapshot companion bits (KINO_REVIVED doubles finds, AKIO_REVIVED stops them)
+    public YieldCalculator(Place place, Weather weather, int companions) {
+        this.place = place;
+        this.weather = weather;
+        this.yield = (companions & GameSnapshot.AKIO_REVIVED) != 0 ? 0
+                : (companions & GameSnapshot.KINO_REVIVED) != 0 ? 2 : 1;
+
+        CompiledDropTable fedTable = CompiledDropTable.of(place, weather, true);
+        int[] distinct = new int[fedTable.size()];
+        int count = 0;
+        for (int slot = 0; slot < fedTable.size(); slot++) {
+            int id = fedTable.materialId(slot);
+            if (indexOf(distinct, count, id) < 0) distinct[count++] = id;
+        }
+        if (fedTable.isDeepSea()) {
+            distinct = Arrays.copyOf(distinct, count + 1);
+            distinct[count++] = MaterialRegistry.PAINITE;
+        }
+        this.materialIds = Arrays.copyOf(distinct, count);
+
+        this.fed = exploration(fedTable);
+        this.hungry = exploration(CompiledDropTable.of(place, weather, false));
+    }
+
+    // One exploration, fed (fullness above 0) or not
+    public YieldEstimate perExploration(boolean isFed) {
+        return isFed ? fed : hungry;
+    }
+
+    // A day of 10 explorations starting at the given fullness (each exploration costs 1)
+    public YieldEstimate perDay(int fullness) {
+        return perDays(1, fullness);
+    }
+
+    // Several days in a row with no eating in between (sleeping does not restore fullness)
+    public YieldEstimate perDays(int days, int fullness) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Need at least one day: " + days);
+        }
+        long explorations = (long) days * EXPLORATIONS_PER_DAY;
+        long fedExplorations = Math.min(Math.max(fullness, 0), explorations);
+        if (fedExplorations == 0) return hungry.times(explorations);
+        if (fedExplorations == explorations) return fed.times(explorations);
+        return fed.times(fedExplorations).plus(hungry.times(explorations - fedExplorations));
+    }
+
+    // A known run of days at one place (e.g. a WeatherSequence's days) with no eating in between.
+    // Days are grouped by weather, so there is one calculator (and one compiled table) per
+    // weather that occurs, however long the run is
+    public static YieldEstimate overDays(Place place, Weather[] days, int companions, int fullness) {
+        if (days.length == 0) {
+            throw new IllegalArgumentException("Need at least one day.");
+        }
+        int weathers = Weather.values().length;
+        long[] fedExplorations = new long[weathers];
+        long[] hungryExplorations = new long[weathers];
+        long fed = Math.max(fullness, 0);
+        for (Weather weather : days) {
+            long fedToday = Math.min(fed, EXPLORATIONS_PER_DAY);
+            fed -= fedToday;
+            fedExplorations[weather.ordinal()] += fedToday;
+            hungryExplorations[weather.ordinal()] += EXPLORATIONS_PER_DAY - fedToday;
+        }
+
+        YieldEstimate total = null;
+        for (Weather weather : Weather.values()) {
+            int w = weather.ordinal();
+            if (fedExplorations[w] + hungryExplorations[w] == 0) continue;
+            YieldCalculator calculator = new YieldCalculator(place, weather, companions);
+            YieldEstimate estimate = calculator.fed.times(fedExplorations[w]).plus(calculator.hungry.times(hungryExplorations[w]));
+            total = total == null ? estimate : total.plus(estimate);
+        }
+        return total;
+    }
+
+    // Exact moments of one exploration with the given table
+    private YieldEstimate exploration(CompiledDropTable table) {
+        double safe = 1.0 - DropTable.HAZARD_CHANCE / 100.0; // No hazard: the drop table is rolled
+        int n = materialIds.length;
+        double[] sum = new double[n];        // Per material: sum of slot chances
+        double[] sumVariance = new double[n]; // Per material: sum of p(1-p) over its slots
+        double nothing = 1.0;                 // Chance that no slot drops
+
+        for (int slot = 0; slot < table.size(); slot++) {
+            double p = Math.min(Math.max(table.threshold(slot), 0), 100) / 100.0;
+            int i = indexOf(materialIds, n, table.materialId(slot));
+            sum[i] += p;
+            sumVariance[i] += p * (1 - p);
+            nothing *= 1 - p;
+        }
+
+        // X = yield * (no hazard) * S, where S is the number of this material's slots that dropped
+        double[] mean = new double[n];
+        double[] variance = new double[n];
+        for (int i = 0; i < n; i++) {
+            double meanS = sum[i];
+            double squareS = sumVariance[i] + meanS * meanS;
+            mean[i] = yield * safe * meanS;
+            variance[i] = yield * yield * safe * squareS - mean[i] * mean[i];
+        }
+
+        // Painite: one per gacha cycle, at the long-run rate per exploration
+        if (table.isDeepSea() && yield > 0) {
+            DeepSeaChain chain = DeepSeaChain.explorations(weather);
+            double mu = chain.expectedAttempts();
+            int i = indexOf(materialIds, n, MaterialRegistry.PAINITE);
+            mean[i] = yield / mu;
+            variance[i] = yield * yield * chain.variance() / (mu * mu * mu);
+        }
+
+        double hazard = yield == 0 ? 0.0 : 1.0 - safe; // Akio's reset comes before the hazard roll
+        double empty = yield == 0 ? 1.0 : safe * nothing;
+        return new YieldEstimate(place, 1, materialIds, mean, variance,
+                hazard, hazard * (1 - hazard), empty, empty * (1 - empty));
+    }
+
+    private static int indexOf(int[] ids, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+}
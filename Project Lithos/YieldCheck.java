@@ -0,0 +1,146 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Checks YieldCalculator against the game's own rolls, with no build tool or library needed.
+// For every place, weather and fullness it plays blocks of explorations through DropTable
+// (hazard roll, then the drop table; the Deep Sea gacha included) and compares each
+// material's sampled mean and variance per block with the analytic values. It also draws
+// DeepSeaChain's gacha cycles and compares them with the chain's own mean and variance.
+//
+//   java YieldCheck                        every check, fixed seed
+//   java YieldCheck --seed=7 --blocks=4000
+//
+// A check passes when the sample is within --sigmas standard errors of the analytic value
+// (the standard error of a sample variance comes from the sample's fourth moment). Exits
+// with 1 if any check fails.
+public final class YieldCheck {
+    // Explorations per block. Painite's variance is a long-run rate (DeepSeaChain's renewal
+    // argument), so blocks must span many gacha cycles for it to apply
+    private static final int BLOCK = 200;
+
+    private long seed = 42;
+    private int blocks = 2000;
+    private double sigmas = 5.0;
+    private int checks;
+    private int failures;
+
+    // Output sink for game code under test: drops all text and events
+    private static final class DiscardIO implements GameIO {
+        @Override
+        public String readLine() {
+            throw new java.util.NoSuchElementException("YieldCheck gives no input.");
+        }
+
+        @Override
+        public void print(String text) {}
+
+        @Override
+        public void println(String text) {}
+
+        @Override
+        public void emit(GameEvent event) {}
+    }
+
+    public static void main(String[] args) {
+        YieldCheck check = new YieldCheck();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--seed=")) check.seed = Long.parseLong(value);
+            else if (arg.startsWith("--blocks=")) check.blocks = Integer.parseInt(value);
+            else if (arg.startsWith("--sigmas=")) check.sigmas = Double.parseDouble(value);
+            else throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+
+        for (Place place : Place.values()) {
+            for (Weather weather : Weather.values()) {
+                check.checkDropTable(place, weather, true);
+                check.checkDropTable(place, weather, false);
+            }
+        }
+        for (Weather weather : Weather.values()) {
+            check.checkChain(weather);
+        }
+
+        System.out.println(check.failures == 0 ? "\nAll " + check.checks + " checks passed."
+                : "\n" + check.failures + " of " + check.checks + " checks failed.");
+        if (check.failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Samples blocks of explorations the way Explore rolls them, with no companions revived
+    private void checkDropTable(Place place, Weather weather, boolean fed) {
+        GameState gameState = new GameState(null);
+        gameState.setIO(new DiscardIO());
+        gameState.setInventory(new Inventory(gameState));
+        gameState.getRandom().reseed(seed);
+        DropTable dropTable = new DropTable(gameState.getInventory());
+        int baseSuccessRate = fed ? 65 : 50;
+
+        YieldEstimate expected = new YieldCalculator(place, weather, 0).perExploration(fed).times(BLOCK);
+        String[] materials = expected.getMaterials();
+        double[][] totals = new double[materials.length][blocks];
+        List<String> found = new ArrayList<>();
+        for (int block = 0; block < blocks; block++) {
+            for (int i = 0; i < BLOCK; i++) {
+                if (dropTable.checkHazard()) continue;
+                dropTable.getMaterials(place, baseSuccessRate, weather.multiplier, found);
+                for (String material : found) {
+                    totals[indexOf(materials, material)][block]++;
+                }
+            }
+        }
+
+        String label = place.name + "/" + weather.name() + (fed ? "/fed" : "/hungry");
+        for (int m = 0; m < materials.length; m++) {
+            check(label + " " + materials[m], totals[m],
+                    expected.getMean(materials[m]), expected.getVariance(materials[m]));
+        }
+    }
+
+    // Draws whole gacha cycles from the chain's sampler and checks them against its own moments
+    private void checkChain(Weather weather) {
+        DeepSeaChain chain = DeepSeaChain.explorations(weather);
+        SplittableRandom rng = new SplittableRandom(seed);
+        double[] cycles = new double[blocks * 10];
+        for (int i = 0; i < cycles.length; i++) {
+            cycles[i] = chain.sample(rng);
+        }
+        check("DeepSeaChain/" + weather.name() + " cycle length", cycles, chain.expectedAttempts(), chain.variance());
+    }
+
+    // Compares a sample's mean and variance with the analytic values and prints one line
+    private void check(String name, double[] sample, double mean, double variance) {
+        int n = sample.length;
+        double sampleMean = 0;
+        for (double x : sample) sampleMean += x;
+        sampleMean /= n;
+        double m2 = 0;
+        double m4 = 0;
+        for (double x : sample) {
+            double d = (x - sampleMean) * (x - sampleMean);
+            m2 += d;
+            m4 += d * d;
+        }
+        double sampleVariance = m2 / (n - 1);
+        m4 /= n;
+
+        double meanError = Math.sqrt(variance / n);
+        double varianceError = Math.sqrt(Math.max(m4 - sampleVariance * sampleVariance, 0) / n);
+        boolean meanOk = Math.abs(sampleMean - mean) <= sigmas * meanError + 1e-9;
+        boolean varianceOk = Math.abs(sampleVariance - variance) <= sigmas * varianceError + 1e-9;
+
+        checks++;
+        if (!meanOk || !varianceOk) failures++;
+        System.out.printf("%-6s %-48s mean %10.4f (expected %10.4f)  variance %10.4f (expected %10.4f)%n",
+                meanOk && varianceOk ? "ok" : "FAILED", name, sampleMean, mean, sampleVariance, variance);
+    }
+
+    private static int indexOf(String[] materials, String material) {
+        for (int i = 0; i < materials.length; i++) {
+            if (materials[i].equals(material)) return i;
+        }
+        throw new IllegalStateException("DropTable found " + material + ", which YieldCalculator does not cover.");
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+// Exact expected value and variance of what a run of explorations finds, per material.
+// Made by YieldCalculator; independent runs combine with plus().
+public final class YieldEstimate {
+    private final Place place;
+    private final long explorations;
+    private final int[] materialIds;     // Materials this place can drop, in drop table slot order
+    private final double[] mean;         // Per material: expected amount found
+    private final double[] variance;     // Per material: variance of the amount found
+    private final double hazards;        // Expected explorations lost to a hazard
+    private final double hazardVariance;
+    private final double empty;          // Expected explorations that found nothing (hazards not included)
+    private final double emptyVariance;
+
+    YieldEstimate(Place place, long explorations, int[] materialIds, double[] mean, double[] variance,
+                  double hazards, double hazardVariance, double empty, double emptyVariance) {
+        this.place = place;
+        this.explorations = explorations;
+        this.materialIds = materialIds;
+        this.mean = mean;
+        this.variance = variance;
+        this.hazards = hazards;
+        this.hazardVariance = hazardVariance;
+        this.empty = empty;
+        this.emptyVariance = emptyVariance;
+    }
+
+    // Totals of two independent runs at the same place (means and variances both add)
+    public YieldEstimate plus(YieldEstimate other) {
+        if (other.place != place) {
+            throw new IllegalArgumentException("Cannot add " + other.place.name + " yields to " + place.name + " yields.");
+        }
+        double[] sumMean = new double[mean.length];
+        double[] sumVariance = new double[variance.length];
+        for (int i = 0; i < mean.length; i++) {
+            sumMean[i] = mean[i] + other.mean[i];
+            sumVariance[i] = variance[i] + other.variance[i];
+        }
+        return new YieldEstimate(place, explorations + other.explorations, materialIds, sumMean, sumVariance,
+                hazards + other.hazards, hazardVariance + other.hazardVariance,
+                empty + other.empty, emptyVariance + other.emptyVariance);
+    }
+
+    // Totals of n independent copies of this run
+    public YieldEstimate times(long n) {
+        double[] scaledMean = mean.clone();
+        double[] scaledVariance = variance.clone();
+        for (int i = 0; i < mean.length; i++) {
+            scaledMean[i] *= n;
+            scaledVariance[i] *= n;
+        }
+        return new YieldEstimate(place, explorations * n, materialIds, scaledMean, scaledVariance,
+                hazards * n, hazardVariance * n, empty * n, emptyVariance * n);
+    }
+
+    public Place getPlace() { return place; }
+    public long getExplorations() { return explorations; }
+    public double getExpectedHazards() { return hazards; }
+    public double getHazardVariance() { return hazardVariance; }
+    public double getExpectedEmpty() { return empty; }
+    public double getEmptyVariance() { return emptyVariance; }
+
+    // Expected amount of a material (0 if it never drops here)
+    public double getMean(String material) {
+        int i = indexOf(material);
+        return i < 0 ? 0.0 : mean[i];
+    }
+
+    public double getVariance(String material) {
+        int i = indexOf(material);
+        return i < 0 ? 0.0 : variance[i];
+    }
+
+    public double getStdDev(String material) {
+        return Math.sqrt(getVariance(material));
+    }
+
+    // Materials covered, in drop table order
+    public String[] getMaterials() {
+        return Arrays.stream(materialIds).mapToObj(MaterialRegistry::nameOf).toArray(String[]::new);
+    }
+
+    private int indexOf(String material) {
+        int id = MaterialRegistry.idOf(material);
+        for (int i = 0; i < materialIds.length; i++) {
+            if (materialIds[i] == id) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s: %d explorations, %.3f hazards (sd %.3f), %.3f empty (sd %.3f)%n",
+                place.name, explorations, hazards, Math.sqrt(hazardVariance), empty, Math.sqrt(emptyVariance)));
+        for (int i = 0; i < materialIds.length; i++) {
+            sb.append(String.format("  %-15s mean %10.4f  sd %9.4f%n",
+                    MaterialRegistry.nameOf(materialIds[i]), mean[i], Math.sqrt(variance[i])));
+        }
+        return sb.toString();
+    }
+}